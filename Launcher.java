@@ -1,13 +1,33 @@
+import batch.BatchRunner;
 import display.GuiDisplay;
 import display.TextDisplay;
 import exceptions.MazeMalformedException;
 import exceptions.MazeSizeMissmatchException;
 
+import io.BinaryFileLoader;
+import io.FileInterface;
 import io.FileLoader;
+import io.TiledCellStore;
+import maze.AStarSolver;
 import maze.AutoNavigator;
+import maze.BidirectionalSolver;
+import maze.BreadthFirstSolver;
+import maze.CorridorSolver;
+import maze.DeadEndFillingSolver;
+import maze.DepthFirstSolver;
+import maze.ExternalMemorySolver;
 import maze.Maze;
+import maze.MazeLayout;
+import maze.ParallelBreadthFirstSolver;
+import maze.SolveResult;
+import maze.Solver;
+import server.SolveServer;
+import tournament.Tournament;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Locale;
 
 /**
  * A class that executes the maze based on user input from command line.
@@ -16,9 +36,69 @@ public class Launcher {
     /** The constant to compare the 'GUI' command in the command line arguments */
     private static final String GUI_ARG = "GUI";
 
+    /** The constant to compare the 'BATCH' command in the command line arguments */
+    private static final String BATCH_ARG = "BATCH";
+
+    /** The maximum number of command line arguments in batch mode */
+    private static final int MAX_BATCH_ARGS = 4;
+
+    /** The constant to compare the 'RACE' command in the command line arguments */
+    private static final String RACE_ARG = "RACE";
+
+    /** The maximum number of command line arguments in race mode */
+    private static final int MAX_RACE_ARGS = 4;
+
+    /**
+     * The constant to compare the 'EXTERNAL' command in the command line arguments, which
+     * also chooses the external-memory solver
+     */
+    private static final String EXTERNAL_ARG = "EXTERNAL";
+
+    /** The number of command line arguments in external mode */
+    private static final int EXTERNAL_ARGS = 3;
+
+    /** The constant to compare the 'SERVE' command in the command line arguments */
+    private static final String SERVE_ARG = "SERVE";
+
+    /** The maximum number of command line arguments in server mode */
+    private static final int MAX_SERVE_ARGS = 4;
+
+    /** The number of agents in a race when none is specified */
+    private static final int DEFAULT_AGENTS = 24;
+
+    /** The seed for the order of moves of the agents in a race */
+    private static final long RACE_SEED = 42;
+
+    /** The constant to choose the depth-first solver in the command line arguments */
+    private static final String DFS_ARG = "DFS";
+
+    /** The constant to choose the breadth-first solver in the command line arguments */
+    private static final String BFS_ARG = "BFS";
+
+    /** The constant to choose the parallel breadth-first solver in the command line arguments */
+    private static final String PARALLEL_BFS_ARG = "PBFS";
+
+    /** The constant to choose the A* solver in the command line arguments */
+    private static final String ASTAR_ARG = "ASTAR";
+
+    /** The constant to choose the bidirectional solver in the command line arguments */
+    private static final String BIDIRECTIONAL_ARG = "BIDIRECTIONAL";
+
+    /** The constant to choose the dead-end filling solver in the command line arguments */
+    private static final String DEAD_END_ARG = "DEADEND";
+
+    /** The constant to choose the corridor graph solver in the command line arguments */
+    private static final String CORRIDOR_ARG = "CORRIDOR";
+
+    /** The number of nanoseconds in a millisecond */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
     /** A variable to specify whether GUI has been specified in the command line arguments */
     private static boolean gui;
 
+    /** The name of the solver specified in the command line arguments, or null if none */
+    private static String solverName;
+
     /**
      * Checks and validates the command line arguments
      *
@@ -42,9 +122,230 @@ public class Launcher {
             }
             return args[1];
         }
+
+        // A solver can optionally be chosen after the filename in the terminal view.
+        if (args.length == 2) {
+            solverName = args[1];
+        }
         return args[0];
     }
 
+    /**
+     * Makes an instance of the solver with the specified name.
+     *
+     * @param name the name of the solver from the command line arguments
+     * @return an instance of the corresponding solver
+     * @throws IllegalArgumentException if there is no solver with that name
+     */
+    public static Solver getSolver(String name) throws IllegalArgumentException {
+        switch (name.toUpperCase(Locale.ROOT)) {
+            case DFS_ARG -> {
+                return new DepthFirstSolver();
+            }
+            case BFS_ARG -> {
+                return new BreadthFirstSolver();
+            }
+            case PARALLEL_BFS_ARG -> {
+                return new ParallelBreadthFirstSolver();
+            }
+            case ASTAR_ARG -> {
+                return new AStarSolver();
+            }
+            case BIDIRECTIONAL_ARG -> {
+                return new BidirectionalSolver();
+            }
+            case DEAD_END_ARG -> {
+                return new DeadEndFillingSolver();
+            }
+            case CORRIDOR_ARG -> {
+                return new CorridorSolver();
+            }
+            case EXTERNAL_ARG -> {
+                return new ExternalMemorySolver();
+            }
+            default -> throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Solves the maze with the specified solver, and then moves the player along the path
+     * found so the whole path is shown in a single display.
+     */
+    private static void solveMaze(Maze maze, TextDisplay textDisplay, Solver solver) {
+        SolveResult result = solver.solve(maze);
+        for (int cell : result.getPath()) {
+            maze.setPlayerCoordinates(cell % maze.getMazeX(), cell / maze.getMazeX());
+        }
+        textDisplay.displayMaze();
+
+        System.out.println("Path length: " + result.getPathLength()
+                + ", nodes expanded: " + result.getNodesExpanded()
+                + ", time: " + result.getElapsedNanos() / NANOS_PER_MILLI + " ms");
+    }
+
+    /**
+     * Solves every maze file in a directory or glob headlessly, and prints the results for
+     * each file. The optional arguments after the directory or glob are a solver name and
+     * an output format, either CSV or JSON, in any order.
+     *
+     * @param args the command line arguments, starting with 'BATCH'
+     * @throws IOException if the directory cannot be read
+     * @throws InterruptedException if interrupted while waiting for files to be solved
+     * @throws IllegalArgumentException if the command line arguments do not match the
+     *         required format
+     */
+    public static void runBatch(String[] args) throws IOException, InterruptedException,
+            IllegalArgumentException {
+        if (args.length < 2 || args.length > MAX_BATCH_ARGS) {
+            throw new IllegalArgumentException();
+        }
+
+        Solver solver = new BreadthFirstSolver();
+        String format = BatchRunner.CSV;
+        for (int i = 2; i < args.length; i++) {
+            String option = args[i].toUpperCase(Locale.ROOT);
+            if (option.equals(BatchRunner.CSV) || option.equals(BatchRunner.JSON)) {
+                format = option;
+            } else {
+                solver = getSolver(option);
+            }
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        long startTime = System.nanoTime();
+        long files = new BatchRunner(solver, format, threads, System.out).run(args[1]);
+        double seconds = (System.nanoTime() - startTime) / (NANOS_PER_MILLI * 1000);
+        System.err.printf(Locale.ROOT,
+                "Processed %d files in %.3f s (%.1f files/s) on %d threads%n",
+                files, seconds, files / seconds, threads);
+    }
+
+    /**
+     * Races many agents through the same maze at once, and prints the results for each
+     * agent. The optional arguments after the maze file are the number of agents and the
+     * number of threads, in that order.
+     *
+     * @param args the command line arguments, starting with 'RACE'
+     * @throws FileNotFoundException if the maze file cannot be found
+     * @throws MazeSizeMissmatchException if size specified in line 1 of maze file does not match
+     *         the overall length of maze.
+     * @throws MazeMalformedException if format of maze does not match required format.
+     * @throws InterruptedException if interrupted while waiting for the agents
+     * @throws IllegalArgumentException if the command line arguments do not match the
+     *         required format
+     */
+    public static void runRace(String[] args) throws FileNotFoundException,
+            MazeSizeMissmatchException, MazeMalformedException, InterruptedException,
+            IllegalArgumentException {
+        if (args.length < 2 || args.length > MAX_RACE_ARGS) {
+            throw new IllegalArgumentException();
+        }
+        int agents = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_AGENTS;
+        int threads = args.length > 3 ? Integer.parseInt(args[3])
+                : Runtime.getRuntime().availableProcessors();
+        if (agents < 1 || threads < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        MazeLayout layout = loadLayout(args[1]);
+        Tournament tournament = new Tournament(layout, agents, threads, RACE_SEED);
+        tournament.run();
+        tournament.printResults(System.out);
+        for (Tournament.Agent agent : tournament.getAgents()) {
+            if (agent.getFailure() != null) {
+                System.err.println("Agent " + agent.getId() + " failed: " + agent.getFailure());
+            }
+        }
+        System.err.printf(Locale.ROOT,
+                "%d agents took %d steps in %.3f s (%.0f steps/s) on %d threads%n",
+                agents, tournament.getTotalSteps(),
+                tournament.getElapsedNanos() / (NANOS_PER_MILLI * 1000),
+                tournament.getStepsPerSecond(), threads);
+    }
+
+    /**
+     * Solves a maze file with the external-memory solver without displaying it, and writes
+     * the path to a file as the long cell index of each cell. This works on tiled maze files
+     * too large to fit in memory, with a heap of a few hundred megabytes.
+     *
+     * @param args the command line arguments, starting with 'EXTERNAL', then the maze file
+     *             and the file to write the path to
+     * @throws FileNotFoundException if the maze file cannot be found
+     * @throws MazeSizeMissmatchException if size specified in line 1 of maze file does not match
+     *         the overall length of maze.
+     * @throws MazeMalformedException if format of maze does not match required format.
+     * @throws IOException if the path file or temporary files cannot be written
+     * @throws IllegalArgumentException if the command line arguments do not match the
+     *         required format
+     */
+    public static void runExternal(String[] args) throws FileNotFoundException,
+            MazeSizeMissmatchException, MazeMalformedException, IOException,
+            IllegalArgumentException {
+        if (args.length != EXTERNAL_ARGS) {
+            throw new IllegalArgumentException();
+        }
+
+        MazeLayout layout = loadLayout(args[1]);
+        long startTime = System.nanoTime();
+        long pathLength = new ExternalMemorySolver().solve(layout, Paths.get(args[2]));
+        if (pathLength < 0) {
+            System.out.println("The end point cannot be reached from the start point.");
+        } else {
+            System.out.println("Path length: " + pathLength + ", time: "
+                    + (System.nanoTime() - startTime) / NANOS_PER_MILLI + " ms");
+        }
+    }
+
+    /**
+     * Starts a server on localhost that solves mazes sent to it over HTTP, which runs until
+     * the program is stopped. The optional arguments are the port, a solver name and the
+     * number of solver threads, in that order.
+     *
+     * @param args the command line arguments, starting with 'SERVE'
+     * @throws IOException if the port cannot be bound
+     * @throws IllegalArgumentException if the command line arguments do not match the
+     *         required format
+     */
+    public static void runServer(String[] args) throws IOException, IllegalArgumentException {
+        if (args.length > MAX_SERVE_ARGS) {
+            throw new IllegalArgumentException();
+        }
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : SolveServer.DEFAULT_PORT;
+        Solver solver = args.length > 2 ? getSolver(args[2]) : new BreadthFirstSolver();
+        int threads = args.length > 3 ? Integer.parseInt(args[3])
+                : Runtime.getRuntime().availableProcessors();
+
+        // Send each response as soon as it is written, unless chosen on the command line.
+        // This must be set before the first HTTP server in the JVM is created.
+        if (System.getProperty(SolveServer.NODELAY_PROPERTY) == null) {
+            System.setProperty(SolveServer.NODELAY_PROPERTY, "true");
+        }
+        SolveServer server = new SolveServer(solver, port, threads);
+        server.start();
+        System.err.println("Solving mazes at http://localhost:" + server.getPort() + "/solve");
+    }
+
+    /**
+     * Loads the layout of a maze file. Tiled maze files are paged in as they are used, and
+     * any other maze file is loaded into memory with the loader for its format.
+     *
+     * @param filename path of the maze file, or null for an empty maze
+     * @return the walls, start point and end point of the maze
+     * @throws FileNotFoundException if the filename cannot be found
+     * @throws MazeSizeMissmatchException if size of maze does not match the given size.
+     * @throws MazeMalformedException if format of maze does not match required format.
+     * @throws IllegalArgumentException if maze contains invalid characters.
+     */
+    private static MazeLayout loadLayout(String filename) throws FileNotFoundException,
+            MazeSizeMissmatchException, MazeMalformedException, IllegalArgumentException {
+        if (TiledCellStore.isTiledFile(filename)) {
+            return TiledCellStore.loadLayout(filename);
+        }
+        FileInterface mazeFile = BinaryFileLoader.isBinaryFile(filename)
+                ? new BinaryFileLoader() : new FileLoader();
+        return new MazeLayout(mazeFile.load(filename));
+    }
+
     /**
      * Runs the maze either in GUI or terminal/
      *
@@ -53,29 +354,61 @@ public class Launcher {
      * @throws MazeSizeMissmatchException if size specified in line 1 of maze file does not match
      *         the overall length of maze.
      * @throws MazeMalformedException if format of maze does not match required format.
-     * @throws IllegalArgumentException if maze contains invalid characters.
+     * @throws IllegalArgumentException if maze contains invalid characters, or has more
+     *         cells than the terminal can display.
      * @throws InterruptedException if Thread.sleep() is interrupted while sleeping
+     * @throws IOException if the directory in batch mode cannot be read
      */
     public static void main(String[] args) throws FileNotFoundException, MazeSizeMissmatchException,
-            MazeMalformedException, IllegalArgumentException, InterruptedException {
+            MazeMalformedException, IllegalArgumentException, InterruptedException, IOException {
+        if (args.length > 0 && args[0].compareTo(BATCH_ARG) == 0) {
+            runBatch(args);
+            return;
+        }
+        if (args.length > 0 && args[0].compareTo(RACE_ARG) == 0) {
+            runRace(args);
+            return;
+        }
+        if (args.length > 0 && args[0].compareTo(EXTERNAL_ARG) == 0) {
+            runExternal(args);
+            return;
+        }
+        if (args.length > 0 && args[0].compareTo(SERVE_ARG) == 0) {
+            runServer(args);
+            return;
+        }
 
         // Validate command line arguments and initialise maze based on specified file.
         gui = false;
+        solverName = null;
         String filename = checkCommandLineArgs(args);
-        FileLoader mazeFile = new FileLoader();
-        char[][] mazeData = mazeFile.load(filename);
-        Maze maze = new Maze(mazeData);
+        Solver solver = solverName == null ? null : getSolver(solverName);
+        Maze maze = new Maze(loadLayout(filename));
 
         // Open GUI if user has specified on command line arguments, otherwise display and
-        // use auto-navigator maze in terminal.
+        // use auto-navigator maze in terminal, or the chosen solver if one was specified.
         if (gui) {
             GuiDisplay guiDisplay = new GuiDisplay(maze, filename);
         } else {
+            // The terminal display, the solvers and the connectivity index all hold one entry
+            // per cell in an array, so larger mazes can only be solved without displaying them.
+            if (maze.getLayout().getCellCount() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Maze has too many cells to display: "
+                        + maze.getLayout().getCellCount() + ". Solve it with 'java Launcher "
+                        + EXTERNAL_ARG + " " + filename + " {path file}' instead.");
+            }
             TextDisplay textDisplay = new TextDisplay(maze);
             textDisplay.displayMaze();
 
-            AutoNavigator auto = new AutoNavigator(maze, textDisplay);
-            auto.navigate();
+            // Only navigate the maze if the end point can be reached from the start point.
+            if (!maze.getConnectivity().isSolvable()) {
+                System.out.println("The end point cannot be reached from the start point.");
+            } else if (solver != null) {
+                solveMaze(maze, textDisplay, solver);
+            } else {
+                AutoNavigator auto = new AutoNavigator(maze, textDisplay);
+                auto.navigate();
+            }
 
             if (maze.isGameOver()) {
                 System.out.print("Exit was found!");
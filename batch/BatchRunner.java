@@ -0,0 +1,250 @@
+package batch;
+
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+import io.BinaryFileLoader;
+import io.FileInterface;
+import io.FileLoader;
+import maze.Maze;
+import maze.SolveResult;
+import maze.Solver;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * A class that loads and solves every maze file in a directory, or every file matching a
+ * glob, on a pool of threads, and prints a line of results for each file as soon as it is
+ * solved. Only a bounded number of files are loaded at once, so memory stays flat no
+ * matter how many files there are. Mazes whose end point cannot be reached from their
+ * start point are found when they are loaded and are not given to the solver.
+ */
+public class BatchRunner {
+    /** The name of the comma-separated output format */
+    public static final String CSV = "CSV";
+
+    /** The name of the JSON lines output format */
+    public static final String JSON = "JSON";
+
+    /** The heading printed before the results in CSV format */
+    public static final String CSV_HEADER =
+            "file,solvable,path_length,nodes_expanded,load_ms,solve_ms,error";
+
+    /** The number of files that may be waiting for a thread for each thread in the pool */
+    private static final int QUEUED_PER_THREAD = 2;
+
+    /** The number of nanoseconds in a millisecond */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /** The characters that mark the start of a glob in a path */
+    private static final String GLOB_CHARS = "*?[{";
+
+    /** The solver used for every maze, which must be safe to share between threads */
+    private final Solver solver;
+
+    /** The output format, either CSV or JSON */
+    private final String format;
+
+    /** The number of threads solving mazes */
+    private final int threads;
+
+    /** The stream to print the results to */
+    private final PrintStream out;
+
+    /**
+     * Constructor which initialises the solver, output format, number of threads and the
+     * stream to print the results to.
+     *
+     * @param solver the solver used for every maze
+     * @param format the output format, either CSV or JSON
+     * @param threads the number of threads solving mazes
+     * @param out the stream to print the results to
+     * @throws IllegalArgumentException if the format is not CSV or JSON, or threads is not
+     *         positive
+     */
+    public BatchRunner(Solver solver, String format, int threads, PrintStream out)
+            throws IllegalArgumentException {
+        if (!CSV.equals(format) && !JSON.equals(format) || threads < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.solver = solver;
+        this.format = format;
+        this.threads = threads;
+        this.out = out;
+    }
+
+    /**
+     * Solves every file in the specified directory and its subdirectories, or every file
+     * matching the specified glob, such as "mazes/**.txt".
+     *
+     * @param pattern a directory or a glob of maze files
+     * @return the number of files processed
+     * @throws IOException if the directory cannot be read
+     * @throws InterruptedException if interrupted while waiting for files to be solved
+     */
+    public long run(String pattern) throws IOException, InterruptedException {
+        Path base = getBaseDirectory(pattern);
+        PathMatcher matcher = base.toString().equals(pattern) ? path -> true
+                : FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+
+        if (CSV.equals(this.format)) {
+            this.out.println(CSV_HEADER);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+        Semaphore slots = new Semaphore(this.threads * (1 + QUEUED_PER_THREAD));
+        AtomicLong count = new AtomicLong();
+        try (Stream<Path> files = Files.walk(base)) {
+            Iterator<Path> iterator = files
+                    .filter(path -> Files.isRegularFile(path) && matcher.matches(path))
+                    .iterator();
+            while (iterator.hasNext()) {
+                Path file = iterator.next();
+                // Wait for a slot so only a bounded number of files are queued at once.
+                slots.acquire();
+                pool.execute(() -> {
+                    try {
+                        this.solveFile(file);
+                        count.incrementAndGet();
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        return count.get();
+    }
+
+    /**
+     * Gets the directory to search, which is the part of the pattern before the first
+     * glob character.
+     */
+    private static Path getBaseDirectory(String pattern) {
+        int globStart = pattern.length();
+        for (char globChar : GLOB_CHARS.toCharArray()) {
+            int index = pattern.indexOf(globChar);
+            if (index >= 0 && index < globStart) {
+                globStart = index;
+            }
+        }
+        if (globStart == pattern.length()) {
+            return Paths.get(pattern);
+        }
+        Path base = Paths.get(pattern.substring(0, globStart)).getParent();
+        return base == null ? Paths.get("") : base;
+    }
+
+    /**
+     * Loads and solves a single maze file, and prints its line of results.
+     */
+    private void solveFile(Path file) {
+        String filename = file.toString();
+        long loadStart = System.nanoTime();
+        try {
+            FileInterface loader = BinaryFileLoader.isBinaryFile(filename)
+                    ? new BinaryFileLoader() : new FileLoader();
+            Maze maze = new Maze(loader.load(filename));
+            boolean solvable = maze.getConnectivity().isSolvable();
+            long loadNanos = System.nanoTime() - loadStart;
+
+            // Reject mazes that cannot be solved without searching them.
+            SolveResult result = solvable ? this.solver.solve(maze)
+                    : new SolveResult(new int[0], 0, 0);
+            printResult(filename, result, loadNanos, null);
+
+        } catch (MazeMalformedException | MazeSizeMissmatchException | FileNotFoundException
+                | RuntimeException | Error ex) {
+            // Any other failure, including running out of memory on a large file, is also
+            // reported as an error line, so the file is never silently left out of the
+            // results. The maze is no longer referenced, so its memory is free again here.
+            String error = ex.getClass().getSimpleName()
+                    + (ex.getMessage() == null ? "" : ": " + ex.getMessage());
+            printResult(filename, null, System.nanoTime() - loadStart, error);
+        }
+    }
+
+    /**
+     * Prints a line of results in the output format. The result is null if the file could
+     * not be loaded, in which case error describes why.
+     */
+    private void printResult(String filename, SolveResult result, long loadNanos,
+            String error) {
+        boolean solvable = result != null && result.isSolvable();
+        int pathLength = result == null ? -1 : result.getPathLength();
+        long nodesExpanded = result == null ? 0 : result.getNodesExpanded();
+        String loadMillis = String.format(Locale.ROOT, "%.3f", loadNanos / NANOS_PER_MILLI);
+        String solveMillis = result == null ? ""
+                : String.format(Locale.ROOT, "%.3f", result.getElapsedNanos() / NANOS_PER_MILLI);
+
+        String line;
+        if (CSV.equals(this.format)) {
+            line = quoteCsv(filename) + "," + solvable + "," + pathLength + ","
+                    + nodesExpanded + "," + loadMillis + "," + solveMillis + ","
+                    + (error == null ? "" : quoteCsv(error));
+        } else {
+            line = "{\"file\":" + quoteJson(filename) + ",\"solvable\":" + solvable
+                    + ",\"pathLength\":" + pathLength + ",\"nodesExpanded\":" + nodesExpanded
+                    + ",\"loadMs\":" + loadMillis
+                    + ",\"solveMs\":" + (result == null ? "null" : solveMillis)
+                    + ",\"error\":" + (error == null ? "null" : quoteJson(error)) + "}";
+        }
+
+        // Print whole lines at once so lines from different threads are not mixed.
+        synchronized (this.out) {
+            this.out.println(line);
+        }
+    }
+
+    /**
+     * Quotes a value for CSV if it contains a comma, quote or line break.
+     */
+    private static String quoteCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Quotes a value as a JSON string, escaping quotes, backslashes and control characters.
+     */
+    private static String quoteJson(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char letter = value.charAt(i);
+            switch (letter) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (letter < ' ') {
+                        quoted.append(String.format(Locale.ROOT, "\\u%04x", (int) letter));
+                    } else {
+                        quoted.append(letter);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
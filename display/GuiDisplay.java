@@ -2,7 +2,10 @@ package display;
 
 import exceptions.MazeMalformedException;
 import exceptions.MazeSizeMissmatchException;
+import io.BinaryFileLoader;
+import io.CachingFileLoader;
 import io.FileLoader;
+import maze.DistanceField;
 import maze.Maze;
 import maze.MovePlayer;
 
@@ -13,7 +16,16 @@ import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * A class that displays the maze in a GUI and navigates it with user input.
@@ -40,6 +52,15 @@ public class GuiDisplay implements KeyListener, ActionListener {
     /** The name for the add file button */
     public static final String ADD_FILE = "Add file";
 
+    /** The name for the button to cancel loading a maze */
+    public static final String CANCEL = "Cancel";
+
+    /** The number of threads that load and preload maze files */
+    public static final int LOADER_THREADS = 2;
+
+    /** The largest maze file in bytes that is preloaded when it is added to the dropdown */
+    public static final long MAX_PRELOAD_BYTES = 16L << 20;
+
     /** The title of the message box dialog box */
     public static final String EXIT_MSG = "Exit was found!";
 
@@ -55,9 +76,46 @@ public class GuiDisplay implements KeyListener, ActionListener {
     /** Filepath for one of the default maze files to show in dropdown menu */
     public static final String SAMPLE_THREE = "Large.txt";
 
+    /** The text added to the frame name to show the distance to the exit */
+    public static final String DISTANCE_MSG = " - Moves to exit: ";
+
+    /** The message shown instead of the moves to exit when the maze is too large for hints */
+    public static final String NO_HINTS_MSG = " - Too many cells for hints";
+
+    /** The number of pixels the maze view is moved by for each arrow key press */
+    public static final int PAN_STEP = 50;
+
     /** The Maze object containing the 2D array of MazeComponent to navigate */
     private Maze maze;
 
+    /**
+     * The distance from every cell of the maze to the exit, for hints and routes, which is
+     * null until a hint or route is first asked for, as it costs 8 bytes a cell to build
+     */
+    private DistanceField distanceField;
+
+    /** A boolean indicating whether a hint or route is shown over the maze */
+    private boolean routeShown = false;
+
+    /** The threads that load maze files in the background, off the event dispatch thread */
+    private final ExecutorService loader = Executors.newFixedThreadPool(LOADER_THREADS, task -> {
+        Thread thread = new Thread(task, "maze-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** The mazes that have been loaded or preloaded, so loading them again is instant */
+    private final CachingFileLoader mazeCache = new CachingFileLoader();
+
+    /** The maze currently being loaded, or null if no maze is being loaded */
+    private LoadWorker loading;
+
+    /** The bar showing how much of the maze being loaded has been read */
+    private JProgressBar progressBar;
+
+    /** The button to cancel loading a maze */
+    private JButton cancelLoad;
+
     /** The main frame to open the GUI in */
     private JFrame frame;
 
@@ -94,6 +152,18 @@ public class GuiDisplay implements KeyListener, ActionListener {
     /** An array of the file names to show in the dropdown menu */
     private ArrayList<String> fileNames;
 
+    /** Moves the player up from the specified coordinates */
+    private final MovePlayer up = (int x, int y) -> this.maze.setPlayerCoordinates(x, y - 1);
+
+    /** Moves the player down from the specified coordinates */
+    private final MovePlayer down = (int x, int y) -> this.maze.setPlayerCoordinates(x, y + 1);
+
+    /** Moves the player right from the specified coordinates */
+    private final MovePlayer right = (int x, int y) -> this.maze.setPlayerCoordinates(x + 1, y);
+
+    /** Moves the player left from the specified coordinates */
+    private final MovePlayer left = (int x, int y) -> this.maze.setPlayerCoordinates(x - 1, y);
+
     /**
      * Initialises and displays the GUI, either with a file or without.
      *
@@ -133,6 +203,17 @@ public class GuiDisplay implements KeyListener, ActionListener {
         for (String fileName : this.mazeFilePath) {
             File file = new File(fileName);
             this.fileNames.add(file.getName());
+            preload(fileName);
+        }
+    }
+
+    /**
+     * Starts loading a maze file in the background if it is small enough, so that switching
+     * to it later is instant.
+     */
+    private void preload(String fileName) {
+        if (new File(fileName).length() <= MAX_PRELOAD_BYTES) {
+            this.loader.submit(() -> this.mazeCache.loadMaze(fileName));
         }
     }
 
@@ -155,6 +236,18 @@ public class GuiDisplay implements KeyListener, ActionListener {
         this.addFile = createAddFileButton();
         this.menu.add(this.addFile);
 
+        // The progress bar and cancel button are only shown while a maze is loading.
+        this.progressBar = new JProgressBar(0, 100);
+        this.progressBar.setStringPainted(true);
+        this.progressBar.setVisible(false);
+        this.menu.add(this.progressBar);
+
+        this.cancelLoad = new JButton(CANCEL);
+        this.cancelLoad.addActionListener(this);
+        this.cancelLoad.setFocusable(false);
+        this.cancelLoad.setVisible(false);
+        this.menu.add(this.cancelLoad);
+
         this.mazeFrame.add(menu);
         this.frame.add(this.mazeFrame);
         this.frame.pack();
@@ -240,32 +333,90 @@ public class GuiDisplay implements KeyListener, ActionListener {
      * Move's the player's position in the maze based on user input, and updates maze display
      */
     private void userMove(KeyEvent key) {
-        // Initialise lambda expressions for up, down, left, and right
-        MovePlayer up = (int x, int y) -> this.maze.setPlayerCoordinates(x, y - 1);
-        MovePlayer down = (int x, int y) -> this.maze.setPlayerCoordinates(x, y + 1);
-        MovePlayer right = (int x, int y) -> this.maze.setPlayerCoordinates(x + 1, y);
-        MovePlayer left = (int x, int y) -> this.maze.setPlayerCoordinates(x - 1, y);
-
         int playerX = this.maze.getPlayerX();
         int playerY = this.maze.getPlayerY();
 
         switch (Character.toUpperCase(key.getKeyChar())) {
-            case 'W' -> {
-                up.move(playerX, playerY);
-                this.mazeFrame.repaint();
-            }
-            case 'S' -> {
-                down.move(playerX, playerY);
-                this.mazeFrame.repaint();
+            case 'W' -> this.up.move(playerX, playerY);
+            case 'S' -> this.down.move(playerX, playerY);
+            case 'A' -> this.left.move(playerX, playerY);
+            case 'D' -> this.right.move(playerX, playerY);
+            default -> {
+                return;
             }
-            case 'A' -> {
-                left.move(playerX, playerY);
-                this.mazeFrame.repaint();
+        }
+
+        // Only the cells the player moved from and to have changed.
+        if (this.maze.getPlayerX() != playerX || this.maze.getPlayerY() != playerY) {
+            hideRoute();
+            this.mazeFrame.repaintCell(playerX, playerY);
+            this.mazeFrame.repaintCell(this.maze.getPlayerX(), this.maze.getPlayerY());
+            this.mazeFrame.scrollToPlayer();
+        }
+    }
+
+    /**
+     * Shows the next move towards the exit when 'H' is pressed, or the whole route to the
+     * exit when 'R' is pressed, along with the number of moves left to the exit. The
+     * distance field is built the first time either is pressed.
+     */
+    private void showRoute(KeyEvent key) {
+        char keyChar = Character.toUpperCase(key.getKeyChar());
+        if (keyChar != 'H' && keyChar != 'R') {
+            return;
+        }
+        if (this.maze.getLayout().getCellCount() > Integer.MAX_VALUE) {
+            this.frame.setTitle(FRAME_NAME + NO_HINTS_MSG);
+            return;
+        }
+        if (this.distanceField == null) {
+            this.distanceField = DistanceField.getDistanceField(this.maze);
+        }
+
+        int playerX = this.maze.getPlayerX();
+        int playerY = this.maze.getPlayerY();
+        int[] route;
+        switch (keyChar) {
+            case 'H' -> {
+                route = this.distanceField.getRoute(playerX, playerY);
+                route = route.length > 1 ? new int[] {route[1]} : route;
             }
-            case 'D' -> {
-                right.move(playerX, playerY);
-                this.mazeFrame.repaint();
+            case 'R' -> route = this.distanceField.getRoute(playerX, playerY);
+            default -> {
+                return;
             }
+        }
+
+        this.routeShown = true;
+        this.mazeFrame.setRoute(route);
+        int distance = this.distanceField.getDistance(playerX, playerY);
+        this.frame.setTitle(FRAME_NAME + DISTANCE_MSG
+                + (distance == DistanceField.UNREACHABLE ? "none" : distance));
+    }
+
+    /**
+     * Stops showing the hint or route over the maze, as it is out of date once the player
+     * has moved.
+     */
+    private void hideRoute() {
+        if (this.routeShown) {
+            this.routeShown = false;
+            this.mazeFrame.setRoute(null);
+            this.frame.setTitle(FRAME_NAME);
+        }
+    }
+
+    /**
+     * Pans the maze view with the arrow keys and zooms it with the plus and minus keys.
+     */
+    private void moveView(KeyEvent key) {
+        switch (key.getKeyCode()) {
+            case KeyEvent.VK_UP -> this.mazeFrame.pan(0, -PAN_STEP);
+            case KeyEvent.VK_DOWN -> this.mazeFrame.pan(0, PAN_STEP);
+            case KeyEvent.VK_LEFT -> this.mazeFrame.pan(-PAN_STEP, 0);
+            case KeyEvent.VK_RIGHT -> this.mazeFrame.pan(PAN_STEP, 0);
+            case KeyEvent.VK_EQUALS, KeyEvent.VK_PLUS, KeyEvent.VK_ADD -> this.mazeFrame.zoomIn();
+            case KeyEvent.VK_MINUS, KeyEvent.VK_SUBTRACT -> this.mazeFrame.zoomOut();
             default -> {
             }
         }
@@ -281,12 +432,14 @@ public class GuiDisplay implements KeyListener, ActionListener {
         switch (e.getActionCommand()) {
             case NEW_MAZE -> setNewGame();
             case ADD_FILE -> addToMazeFilePath();
+            case CANCEL -> cancelLoading();
         }
     }
 
     /**
-     * Starts a new maze with the selected maze file in the dropdown menu for when
-     * the new game button is pressed.
+     * Starts loading the selected maze file in the dropdown menu in the background for when
+     * the new game button is pressed, cancelling any maze that is already loading. The
+     * current maze stays on screen until the new one has loaded.
      */
     private void setNewGame() {
         this.newGame.setFocusable(false);
@@ -303,22 +456,92 @@ public class GuiDisplay implements KeyListener, ActionListener {
 
         this.msgBoxOpen = false;
 
-        try {
-            // Remove frame components before re-initialising it
-            this.frame.remove(this.menu);
-            this.frame.remove(this.mazeFrame);
-            this.frame.removeKeyListener(this);
-
-            this.maze = new Maze(new FileLoader().load(fileName));
-            this.mazeFrame = new GuiDrawMaze(this.maze, this.frame);
+        if (this.loading != null) {
+            this.loading.cancel(true);
+        }
+        this.loading = new LoadWorker(fileName, selectedIndex);
+        this.loading.addPropertyChangeListener(event -> {
+            if ("progress".equals(event.getPropertyName())) {
+                this.progressBar.setValue((Integer) event.getNewValue());
+            }
+        });
+        this.progressBar.setValue(0);
+        this.progressBar.setVisible(true);
+        this.cancelLoad.setVisible(true);
+        this.loader.execute(this.loading);
+    }
 
-            initGui();
-            this.dropDown.setSelectedIndex(selectedIndex);
+    /**
+     * Swaps the loaded maze in for the current one, once it has finished loading on the
+     * event dispatch thread.
+     */
+    private void finishNewGame(LoadWorker worker) {
+        if (worker != this.loading) {
+            return;
+        }
+        this.loading = null;
+        this.progressBar.setVisible(false);
+        this.cancelLoad.setVisible(false);
 
-        } catch (MazeMalformedException | MazeSizeMissmatchException | FileNotFoundException ex) {
+        Maze newMaze;
+        try {
+            newMaze = worker.get();
+        } catch (CancellationException ex) {
+            return;
+        } catch (InterruptedException | ExecutionException ex) {
             // A RuntimeException must be thrown for these exceptions when new game button is
             // pressed because 'actionPerformed' function cannot throw custom exceptions.
-            throw new RuntimeException(ex);
+            throw new RuntimeException(ex.getCause() != null ? ex.getCause() : ex);
+        }
+
+        // Remove frame components before re-initialising it
+        this.frame.remove(this.menu);
+        this.frame.remove(this.mazeFrame);
+        this.frame.removeKeyListener(this);
+
+        this.maze = newMaze;
+        this.distanceField = null;
+        this.mazeFrame = new GuiDrawMaze(this.maze, this.frame);
+        this.routeShown = false;
+        this.frame.setTitle(FRAME_NAME);
+
+        initGui();
+        this.dropDown.setSelectedIndex(worker.selectedIndex);
+    }
+
+    /**
+     * Cancels loading a maze, leaving the current maze on screen.
+     */
+    private void cancelLoading() {
+        if (this.loading != null) {
+            this.loading.cancel(true);
+        }
+    }
+
+    /**
+     * Loads the maze data from a maze file, either text or binary.
+     *
+     * @param fileName the path of the maze file
+     * @param worker the worker to report progress to
+     * @return a 2D array with all data from the file.
+     * @throws MazeMalformedException if any line in maze file has incorrect format
+     * @throws MazeSizeMissmatchException if size of line or number of lines in maze file does
+     *              not match given length
+     * @throws FileNotFoundException if the filename cannot be found
+     */
+    private static char[][] loadFile(String fileName, LoadWorker worker)
+            throws MazeMalformedException, MazeSizeMissmatchException, FileNotFoundException {
+        if (BinaryFileLoader.isBinaryFile(fileName)) {
+            return new BinaryFileLoader().load(fileName);
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName))) {
+            return new FileLoader().load(new ProgressChannel(channel, channel.size(), worker));
+        } catch (IOException ex) {
+            if (worker.isCancelled()) {
+                throw new CancellationException();
+            }
+            throw new FileNotFoundException(fileName);
         }
     }
 
@@ -337,6 +560,7 @@ public class GuiDisplay implements KeyListener, ActionListener {
             // Add file names to drop down menu.
             this.dropDown.addItem(fileChooser.getName(fileChooser.getSelectedFile()));
             this.dropDown.setSelectedIndex(this.dropDown.getItemCount() - 1);
+            preload(fileChooser.getSelectedFile().getPath());
         }
         this.addFile.setFocusable(false);
     }
@@ -354,6 +578,8 @@ public class GuiDisplay implements KeyListener, ActionListener {
     @Override
     public void keyPressed(KeyEvent e) {
         userMove(e);
+        moveView(e);
+        showRoute(e);
         if (this.maze.isGameOver()) {
             this.frame.setFocusable(false);
             createWinMsgBox();
@@ -364,4 +590,112 @@ public class GuiDisplay implements KeyListener, ActionListener {
     public void keyReleased(KeyEvent e) {
 
     }
+
+    /**
+     * A class that loads a maze file, or copies it from the cache, in the background, and
+     * then swaps the new maze in on the event dispatch thread.
+     */
+    private class LoadWorker extends SwingWorker<Maze, Void> {
+        /** The path of the maze file to load */
+        private final String fileName;
+
+        /** The index of the maze file in the dropdown menu */
+        private final int selectedIndex;
+
+        /**
+         * Constructor for a worker to load the specified maze file.
+         *
+         * @param fileName the path of the maze file
+         * @param selectedIndex the index of the maze file in the dropdown menu
+         */
+        LoadWorker(String fileName, int selectedIndex) {
+            this.fileName = fileName;
+            this.selectedIndex = selectedIndex;
+        }
+
+        /**
+         * Loads the maze, from the cache if it has been loaded or preloaded before.
+         *
+         * @return the loaded maze
+         * @throws Exception if the maze file cannot be found or has invalid maze data
+         */
+        @Override
+        protected Maze doInBackground() throws Exception {
+            Maze maze = mazeCache.loadMaze(this.fileName, name -> loadFile(name, this));
+            setProgress(100);
+            return maze;
+        }
+
+        /**
+         * Reports how much of the maze file has been read.
+         *
+         * @param read the number of bytes read so far
+         * @param size the size of the maze file in bytes
+         */
+        void reportRead(long read, long size) {
+            if (isCancelled()) {
+                throw new CancellationException();
+            }
+            setProgress((int) (read * 100 / Math.max(size, 1)));
+        }
+
+        /**
+         * Swaps the loaded maze in on the event dispatch thread.
+         */
+        @Override
+        protected void done() {
+            finishNewGame(this);
+        }
+    }
+
+    /**
+     * A class that reads from a file channel and reports how much of the file has been read
+     * to a LoadWorker.
+     */
+    private static class ProgressChannel implements ReadableByteChannel {
+        /** The channel to read from */
+        private final FileChannel channel;
+
+        /** The size of the file in bytes */
+        private final long size;
+
+        /** The worker to report progress to */
+        private final LoadWorker worker;
+
+        /** The number of bytes read so far */
+        private long read;
+
+        /**
+         * Constructor for a channel that reports progress reading the specified channel.
+         *
+         * @param channel the channel to read from
+         * @param size the size of the file in bytes
+         * @param worker the worker to report progress to
+         */
+        ProgressChannel(FileChannel channel, long size, LoadWorker worker) {
+            this.channel = channel;
+            this.size = size;
+            this.worker = worker;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int count = this.channel.read(dst);
+            if (count > 0) {
+                this.read += count;
+                this.worker.reportRead(this.read, this.size);
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return this.channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
 }
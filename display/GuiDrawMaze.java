@@ -1,19 +1,24 @@
 package display;
 
 import maze.Maze;
+import metrics.Histogram;
+import metrics.Metrics;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.BitSet;
 
 /**
- * A class to draw the maze and contain the menu components.
+ * A class to draw the maze and contain the menu components. Only the part of the maze that
+ * is visible in the viewport is drawn, so painting costs the same however large the maze is.
+ * The viewport can be zoomed and dragged, and it follows the player as they move. When zoomed
+ * out too far to draw each cell, a precomputed mip-mapped overview of the maze is drawn.
  */
 public class GuiDrawMaze extends JPanel {
-    /** The initial width for each rectangle for each component of maze */
-    public static final int INITIAL_WIDTH = 25;
-
-    /** The initial height for each rectangle for each component of maze */
-    public static final int INITIAL_HEIGHT = 30;
-
     /** The offset from the left edge of the frame for where to start drawing */
     public static final int OFFSET_X = 30;
 
@@ -23,36 +28,120 @@ public class GuiDrawMaze extends JPanel {
     /** The clearance from the edges for where to stop drawing */
     public static final int CLEARANCE = 100;
 
+    /** The size in pixels of each cell when the maze is too large to fit in the frame */
+    public static final double DEFAULT_SCALE = 10;
+
+    /** The largest size in pixels of each cell when zooming in */
+    public static final double MAX_SCALE = 60;
+
+    /** The smallest size in pixels of each cell that is drawn as its own rectangle */
+    public static final double MIN_CELL_SCALE = 3;
+
+    /** The factor the size of each cell is multiplied or divided by for each zoom step */
+    public static final double ZOOM_STEP = 1.25;
+
+    /** The distance in pixels from the edge of the viewport the player is kept inside */
+    public static final int FOLLOW_MARGIN = 60;
+
+    /** The size in pixels of the player marker drawn on the overview */
+    public static final int MARKER_SIZE = 5;
+
+    /** The colour of the cells on a route shown over the maze */
+    public static final Color ROUTE_COLOUR = Color.ORANGE;
+
+    /** The largest number of pixels in the most detailed overview image */
+    public static final int MAX_OVERVIEW_PIXELS = 1 << 22;
+
+    /** The RGB value of the GUI colour for each cell code, indexed by the code */
+    private static final int[] COLOURS = getColours();
+
+    /** The time taken by each paint of the maze */
+    private static final Histogram PAINT_TIME = Metrics.histogram("gui_paint_seconds",
+            "Time taken to paint the visible part of the maze in the window.");
+
     /** The Maze object containing the 2D array of MazeComponent to display */
     private Maze maze;
 
-    /** The width of each rectangle for each component of the maze */
-    private int sizeX;
+    /** The main frame for the GUI, or any component whose size the viewport follows */
+    private Component frame;
 
-    /** The height of each rectangle for each component of the maze */
-    private int sizeY;
+    /** The size of the frame when the viewport was last laid out */
+    private Dimension frameSize;
 
-    /** The main frame for the GUI */
-    private JFrame frame;
+    /** The width of the viewport in pixels */
+    private int viewWidth;
+
+    /** The height of the viewport in pixels */
+    private int viewHeight;
+
+    /** The size of each cell in pixels */
+    private double scale;
+
+    /** The size of each cell in pixels when the whole maze fits in the viewport */
+    private double fitScale;
+
+    /** Whether the maze is scaled to fit the viewport whenever the frame is resized */
+    private boolean fitToFrame;
+
+    /** The x-coordinate of the cell at the centre of the viewport */
+    private double centreX;
+
+    /** The y-coordinate of the cell at the centre of the viewport */
+    private double centreY;
+
+    /** The number of cells along each side of a pixel in the most detailed overview image */
+    private int overviewBase;
+
+    /** The overview images, each with half the width and height of the one before */
+    private BufferedImage[] overview;
+
+    /** An image the size of the viewport, for drawing cells smaller than one pixel */
+    private BufferedImage sampled;
+
+    /** The position of the mouse when the viewport was last dragged */
+    private Point dragPoint;
+
+    /** The cells on the route shown over the maze, indexed by y * mazeX + x */
+    private BitSet route;
 
     /**
-     * Constructor to initialise the maze, main frame, and initial heights and widths for
-     * the rectangle for components.
+     * Constructor to initialise the maze and main frame.
      *
      * @param maze an instance of Maze containing all maze data and components
-     * @param frame the main frame of the GUI to get its height and width
+     * @param frame the main frame of the GUI to get its height and width, which can be any
+     *              component so the maze can also be painted without a display
      */
-    public GuiDrawMaze(Maze maze, JFrame frame) {
+    public GuiDrawMaze(Maze maze, Component frame) {
         this.maze = maze;
         this.frame = frame;
-        this.sizeX = INITIAL_WIDTH;
-        this.sizeY = INITIAL_HEIGHT;
 
+        // Zoom with the mouse wheel and pan by dragging the mouse.
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragPoint = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                pan(dragPoint.x - e.getX(), dragPoint.y - e.getY());
+                dragPoint = e.getPoint();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                double factor = Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation());
+                zoom(factor, e.getX() - OFFSET_X, e.getY() - OFFSET_Y);
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
     }
 
     /**
-     * Draws all components of the maze with their corresponding colour, and size calculated
-     * from the size of maze and frame.
+     * Draws the part of the maze that is visible in the viewport and within the area that
+     * needs to be repainted.
      *
      * @param g  the <code>Graphics</code> context in which to paint
      */
@@ -60,21 +149,483 @@ public class GuiDrawMaze extends JPanel {
     public void paint(Graphics g) {
         super.paint(g);
 
-        // Calculate the size of each rectangle based on size of maze and size of frame.
+        Dimension size = this.frame.getSize();
+        if (!size.equals(this.frameSize)) {
+            layoutViewport(size);
+        }
+        if (this.viewWidth <= 0 || this.viewHeight <= 0) {
+            return;
+        }
+
+        long startTime = Metrics.ENABLED ? System.nanoTime() : 0;
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.clipRect(OFFSET_X, OFFSET_Y, this.viewWidth, this.viewHeight);
+        if (this.scale >= MIN_CELL_SCALE) {
+            drawCells(g2);
+        } else {
+            drawOverview(g2);
+        }
+        g2.dispose();
+        if (Metrics.ENABLED) {
+            PAINT_TIME.recordSince(startTime);
+        }
+    }
+
+    /**
+     * Redraws a single cell of the maze, repainting only the area of the panel that the
+     * cell covers.
+     *
+     * @param x x-coordinate of the cell
+     * @param y y-coordinate of the cell
+     */
+    public void repaintCell(int x, int y) {
+        if (this.frameSize == null) {
+            repaint();
+            return;
+        }
+        updateOverview(x, y);
+
+        int left = screenX(x);
+        int top = screenY(y);
+        int width = Math.max(screenX(x + 1) - left, 1);
+        int height = Math.max(screenY(y + 1) - top, 1);
+        if (this.scale < MIN_CELL_SCALE) {
+            // The player marker on the overview is larger than the cell.
+            left -= MARKER_SIZE;
+            top -= MARKER_SIZE;
+            width += 2 * MARKER_SIZE;
+            height += 2 * MARKER_SIZE;
+        }
+        repaint(left, top, width, height);
+    }
+
+    /**
+     * Shows a route over the maze, replacing any route already shown.
+     *
+     * @param cells the cell indices on the route, where the index of a cell is
+     *              y * maze.getMazeX() + x, or null to stop showing a route.
+     */
+    public void setRoute(int[] cells) {
+        if (cells == null) {
+            if (this.route == null) {
+                return;
+            }
+            this.route = null;
+        } else {
+            this.route = new BitSet(this.maze.getMazeX() * this.maze.getMazeY());
+            for (int cell : cells) {
+                this.route.set(cell);
+            }
+        }
+        repaint();
+    }
+
+    /**
+     * Scrolls the viewport to the player if they have moved too close to its edge.
+     */
+    public void scrollToPlayer() {
+        if (this.frameSize == null) {
+            return;
+        }
+        int playerX = this.maze.getPlayerX();
+        int playerY = this.maze.getPlayerY();
+        int left = screenX(playerX) - OFFSET_X;
+        int top = screenY(playerY) - OFFSET_Y;
+        int marginX = Math.min(FOLLOW_MARGIN, this.viewWidth / 4);
+        int marginY = Math.min(FOLLOW_MARGIN, this.viewHeight / 4);
+        if (left < marginX || left > this.viewWidth - marginX
+                || top < marginY || top > this.viewHeight - marginY) {
+            this.centreX = playerX + 0.5;
+            this.centreY = playerY + 0.5;
+            clampCentre();
+            repaint();
+        }
+    }
+
+    /**
+     * Zooms the viewport in by one step around its centre.
+     */
+    public void zoomIn() {
+        zoom(ZOOM_STEP, this.viewWidth / 2, this.viewHeight / 2);
+    }
+
+    /**
+     * Zooms the viewport out by one step around its centre.
+     */
+    public void zoomOut() {
+        zoom(1 / ZOOM_STEP, this.viewWidth / 2, this.viewHeight / 2);
+    }
+
+    /**
+     * Moves the viewport by the specified number of pixels.
+     *
+     * @param dx pixels to move the viewport right by, or left if negative
+     * @param dy pixels to move the viewport down by, or up if negative
+     */
+    public void pan(int dx, int dy) {
+        if (this.frameSize == null) {
+            return;
+        }
+        this.centreX += dx / this.scale;
+        this.centreY += dy / this.scale;
+        clampCentre();
+        repaint();
+    }
+
+    /**
+     * Multiplies the size of each cell by a factor, keeping the cell under the specified
+     * point of the viewport in place.
+     */
+    private void zoom(double factor, int pointX, int pointY) {
+        if (this.frameSize == null) {
+            return;
+        }
+        double newScale = Math.max(Math.min(this.scale * factor, getMaxScale()),
+                Math.min(this.fitScale, this.scale));
+        if (newScale == this.scale) {
+            return;
+        }
+
+        double cellX = getLeft() + (pointX / this.scale);
+        double cellY = getTop() + (pointY / this.scale);
+        this.scale = newScale;
+        this.fitToFrame = false;
+        this.centreX = cellX - (pointX / newScale) + (this.viewWidth / (2 * newScale));
+        this.centreY = cellY - (pointY / newScale) + (this.viewHeight / (2 * newScale));
+        clampCentre();
+        repaint();
+    }
+
+    /**
+     * Calculates the size of the viewport from the size of the frame, and the size of each
+     * cell so the whole maze fits when it can be drawn at a readable size.
+     */
+    private void layoutViewport(Dimension size) {
+        boolean firstLayout = this.frameSize == null;
+        this.frameSize = size;
+        this.viewWidth = size.width - CLEARANCE;
+        this.viewHeight = size.height - CLEARANCE;
+
+        // Calculate the size of each cell based on size of maze and size of frame. This is
+        // kept as a fraction, as a large maze has cells smaller than a pixel.
+        this.fitScale = Math.min((double) this.viewWidth / this.maze.getMazeX(),
+                (double) this.viewHeight / this.maze.getMazeY());
+
+        if (firstLayout) {
+            this.fitToFrame = this.fitScale >= MIN_CELL_SCALE;
+            this.scale = DEFAULT_SCALE;
+            this.centreX = this.maze.getPlayerX() + 0.5;
+            this.centreY = this.maze.getPlayerY() + 0.5;
+        }
+        if (this.fitToFrame) {
+            this.scale = Math.max(Math.floor(this.fitScale), 1);
+        }
+        clampCentre();
+    }
+
+    /**
+     * Draws each visible cell of the maze within the clip as a rectangle, joining cells of
+     * the same colour in a row into one rectangle.
+     */
+    private void drawCells(Graphics2D g) {
+        Rectangle clip = g.getClipBounds();
+        double left = getLeft();
+        double top = getTop();
+        int firstX = Math.max((int) Math.floor(left + ((clip.x - OFFSET_X) / this.scale)), 0);
+        int firstY = Math.max((int) Math.floor(top + ((clip.y - OFFSET_Y) / this.scale)), 0);
+        int lastX = Math.min((int) Math.ceil(left
+                + ((clip.x + clip.width - OFFSET_X) / this.scale)), this.maze.getMazeX());
+        int lastY = Math.min((int) Math.ceil(top
+                + ((clip.y + clip.height - OFFSET_Y) / this.scale)), this.maze.getMazeY());
+
+        for (int y = firstY; y < lastY; y++) {
+            int screenTop = screenY(y);
+            int screenHeight = screenY(y + 1) - screenTop;
+            int x = firstX;
+            while (x < lastX) {
+                byte code = this.maze.getCell(x, y);
+                int end = x + 1;
+                while (end < lastX && this.maze.getCell(end, y) == code) {
+                    end++;
+                }
+                g.setColor(Maze.getComponent(code).getGuiColour());
+                int screenLeft = screenX(x);
+                g.fillRect(screenLeft, screenTop, screenX(end) - screenLeft, screenHeight);
+                x = end;
+            }
+            if (this.route != null) {
+                drawRoute(g, y, firstX, lastX);
+            }
+        }
+    }
+
+    /**
+     * Draws a smaller square in the middle of each cell on the route in a row of cells.
+     */
+    private void drawRoute(Graphics2D g, int y, int firstX, int lastX) {
+        int mazeX = this.maze.getMazeX();
+        int screenTop = screenY(y);
+        int screenHeight = screenY(y + 1) - screenTop;
+        g.setColor(ROUTE_COLOUR);
+        for (int cell = this.route.nextSetBit(y * mazeX + firstX);
+                cell >= 0 && cell < y * mazeX + lastX; cell = this.route.nextSetBit(cell + 1)) {
+            int screenLeft = screenX(cell % mazeX);
+            int screenWidth = screenX((cell % mazeX) + 1) - screenLeft;
+            g.fillRect(screenLeft + (screenWidth / 4), screenTop + (screenHeight / 4),
+                    Math.max(screenWidth / 2, 1), Math.max(screenHeight / 2, 1));
+        }
+    }
+
+    /**
+     * Draws the maze when each cell is smaller than a rectangle can be drawn, either from
+     * the overview image closest to the current zoom or, when zoomed in past the most
+     * detailed overview, by sampling one cell for each pixel. The player is drawn on top as
+     * a marker so they can still be seen.
+     */
+    private void drawOverview(Graphics2D g) {
+        // Find the overview with the most cells per pixel that is still at least as detailed
+        // as the current zoom.
+        int cellsPerPixel = Math.max((int) (1 / this.scale), 1);
+        int level = 31 - Integer.numberOfLeadingZeros(cellsPerPixel);
+        if (this.overview == null) {
+            buildOverview();
+        }
+
+        int index = level - this.overviewBase;
+        if (index < 0) {
+            drawSampled(g);
+        } else {
+            index = Math.min(index, this.overview.length - 1);
+            double block = 1 << (this.overviewBase + index);
+            Graphics2D image = (Graphics2D) g.create();
+            image.translate(OFFSET_X, OFFSET_Y);
+            image.scale(this.scale * block, this.scale * block);
+            image.translate(-getLeft() / block, -getTop() / block);
+            image.drawImage(this.overview[index], 0, 0, null);
+            image.dispose();
+        }
+
+        int playerX = this.maze.getPlayerX();
+        int playerY = this.maze.getPlayerY();
+        g.setColor(this.maze.getElement(playerX, playerY).getGuiColour());
+        g.fillRect(screenX(playerX) - (MARKER_SIZE / 2), screenY(playerY) - (MARKER_SIZE / 2),
+                MARKER_SIZE, MARKER_SIZE);
+    }
+
+    /**
+     * Draws the maze into an image the size of the viewport by sampling the cell under the
+     * centre of each pixel.
+     */
+    private void drawSampled(Graphics2D g) {
+        if (this.sampled == null || this.sampled.getWidth() != this.viewWidth
+                || this.sampled.getHeight() != this.viewHeight) {
+            this.sampled = new BufferedImage(this.viewWidth, this.viewHeight,
+                    BufferedImage.TYPE_INT_RGB);
+        }
+        int[] pixels = ((DataBufferInt) this.sampled.getRaster().getDataBuffer()).getData();
+        int background = getBackground().getRGB();
+        int mazeX = this.maze.getMazeX();
         int mazeY = this.maze.getMazeY();
+        double left = getLeft();
+        double top = getTop();
+
+        for (int py = 0; py < this.viewHeight; py++) {
+            int y = (int) Math.floor(top + ((py + 0.5) / this.scale));
+            int row = py * this.viewWidth;
+            for (int px = 0; px < this.viewWidth; px++) {
+                int x = (int) Math.floor(left + ((px + 0.5) / this.scale));
+                boolean inside = x >= 0 && x < mazeX && y >= 0 && y < mazeY;
+                pixels[row + px] = inside ? COLOURS[this.maze.getCell(x, y)] : background;
+            }
+        }
+        g.drawImage(this.sampled, OFFSET_X, OFFSET_Y, null);
+    }
+
+    /**
+     * Builds the overview images of the maze. Each pixel of the most detailed image is the
+     * average colour of a square of cells, where the square is as small as it can be while
+     * keeping the image under MAX_OVERVIEW_PIXELS, and each following image averages squares
+     * of four pixels from the one before until the image is a single pixel.
+     */
+    private void buildOverview() {
         int mazeX = this.maze.getMazeX();
-        Dimension size = this.frame.getSize();
-        this.sizeY = (size.height - CLEARANCE) / mazeY;
-        this.sizeX = (size.width - CLEARANCE) / mazeX;
-
-        // Draw every component based on its colour from their classes, and the calculated size
-        // from above.
-        for (int y = 0; y < mazeY; y++) {
-            for (int x = 0; x < mazeX; x++) {
-                g.setColor(this.maze.getElement(x, y).getGuiColour());
-                g.fillRect(OFFSET_X + (x * this.sizeX), OFFSET_Y + (y * this.sizeY),
-                        this.sizeX, this.sizeY);
+        int mazeY = this.maze.getMazeY();
+        this.overviewBase = 0;
+        while ((long) ceilDiv(mazeX, 1 << this.overviewBase)
+                * ceilDiv(mazeY, 1 << this.overviewBase) > MAX_OVERVIEW_PIXELS) {
+            this.overviewBase++;
+        }
+
+        // Count the levels needed to reduce the image down to a single pixel.
+        int levels = 1;
+        int size = Math.max(mazeX, mazeY);
+        while (ceilDiv(size, 1 << (this.overviewBase + levels - 1)) > 1) {
+            levels++;
+        }
+        this.overview = new BufferedImage[levels];
+
+        int block = 1 << this.overviewBase;
+        this.overview[0] = new BufferedImage(ceilDiv(mazeX, block), ceilDiv(mazeY, block),
+                BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < this.overview[0].getHeight(); y++) {
+            for (int x = 0; x < this.overview[0].getWidth(); x++) {
+                this.overview[0].setRGB(x, y, averageCells(x, y));
+            }
+        }
+        for (int level = 1; level < levels; level++) {
+            BufferedImage previous = this.overview[level - 1];
+            this.overview[level] = new BufferedImage(ceilDiv(previous.getWidth(), 2),
+                    ceilDiv(previous.getHeight(), 2), BufferedImage.TYPE_INT_RGB);
+            for (int y = 0; y < this.overview[level].getHeight(); y++) {
+                for (int x = 0; x < this.overview[level].getWidth(); x++) {
+                    this.overview[level].setRGB(x, y, averagePixels(previous, x, y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the pixel covering a cell in each overview image after the cell has changed.
+     */
+    private void updateOverview(int x, int y) {
+        if (this.overview == null) {
+            return;
+        }
+        x >>= this.overviewBase;
+        y >>= this.overviewBase;
+        this.overview[0].setRGB(x, y, averageCells(x, y));
+        for (int level = 1; level < this.overview.length; level++) {
+            x >>= 1;
+            y >>= 1;
+            this.overview[level].setRGB(x, y, averagePixels(this.overview[level - 1], x, y));
+        }
+    }
+
+    /**
+     * Gets the average colour of the cells covered by a pixel in the most detailed overview.
+     */
+    private int averageCells(int pixelX, int pixelY) {
+        int block = 1 << this.overviewBase;
+        int lastX = Math.min((pixelX + 1) * block, this.maze.getMazeX());
+        int lastY = Math.min((pixelY + 1) * block, this.maze.getMazeY());
+        long red = 0;
+        long green = 0;
+        long blue = 0;
+        int count = 0;
+        for (int y = pixelY * block; y < lastY; y++) {
+            for (int x = pixelX * block; x < lastX; x++) {
+                int colour = COLOURS[this.maze.getCell(x, y)];
+                red += (colour >> 16) & 0xFF;
+                green += (colour >> 8) & 0xFF;
+                blue += colour & 0xFF;
+                count++;
+            }
+        }
+        return toRgb(red / count, green / count, blue / count);
+    }
+
+    /**
+     * Gets the average colour of the pixels in an image covered by a pixel of the next
+     * overview image.
+     */
+    private static int averagePixels(BufferedImage image, int pixelX, int pixelY) {
+        int lastX = Math.min((pixelX + 1) * 2, image.getWidth());
+        int lastY = Math.min((pixelY + 1) * 2, image.getHeight());
+        int red = 0;
+        int green = 0;
+        int blue = 0;
+        int count = 0;
+        for (int y = pixelY * 2; y < lastY; y++) {
+            for (int x = pixelX * 2; x < lastX; x++) {
+                int colour = image.getRGB(x, y);
+                red += (colour >> 16) & 0xFF;
+                green += (colour >> 8) & 0xFF;
+                blue += colour & 0xFF;
+                count++;
             }
         }
+        return toRgb(red / count, green / count, blue / count);
+    }
+
+    /**
+     * Gets the RGB value of the GUI colour for each cell code, indexed by the code.
+     */
+    private static int[] getColours() {
+        int[] colours = new int[Maze.BACK_TRACKED_PATH + 1];
+        for (byte code = 0; code < colours.length; code++) {
+            colours[code] = Maze.getComponent(code).getGuiColour().getRGB();
+        }
+        return colours;
+    }
+
+    /**
+     * Packs red, green and blue values into an RGB value.
+     */
+    private static int toRgb(long red, long green, long blue) {
+        return (int) ((red << 16) | (green << 8) | blue);
+    }
+
+    /**
+     * Divides two positive numbers, rounding up.
+     */
+    private static int ceilDiv(int dividend, int divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    /**
+     * Keeps the centre of the viewport within the maze, and centres the maze when it is
+     * smaller than the viewport.
+     */
+    private void clampCentre() {
+        this.centreX = clamp(this.centreX, this.viewWidth / (2 * this.scale),
+                this.maze.getMazeX());
+        this.centreY = clamp(this.centreY, this.viewHeight / (2 * this.scale),
+                this.maze.getMazeY());
+    }
+
+    /**
+     * Clamps the centre of the viewport along one axis, given half the viewport length and
+     * the maze length in cells.
+     */
+    private static double clamp(double centre, double halfView, int length) {
+        if (2 * halfView >= length) {
+            return length / 2.0;
+        }
+        return Math.max(halfView, Math.min(centre, length - halfView));
+    }
+
+    /**
+     * Gets the largest size in pixels of each cell that the viewport can zoom in to.
+     */
+    private double getMaxScale() {
+        return Math.max(MAX_SCALE, this.scale);
+    }
+
+    /**
+     * Gets the x-coordinate, in cells, of the left edge of the viewport.
+     */
+    private double getLeft() {
+        return this.centreX - (this.viewWidth / (2 * this.scale));
+    }
+
+    /**
+     * Gets the y-coordinate, in cells, of the top edge of the viewport.
+     */
+    private double getTop() {
+        return this.centreY - (this.viewHeight / (2 * this.scale));
+    }
+
+    /**
+     * Gets the position on the panel of the left edge of a column of cells.
+     */
+    private int screenX(int x) {
+        return OFFSET_X + (int) Math.floor((x - getLeft()) * this.scale);
+    }
+
+    /**
+     * Gets the position on the panel of the top edge of a row of cells.
+     */
+    private int screenY(int y) {
+        return OFFSET_Y + (int) Math.floor((y - getTop()) * this.scale);
     }
 }
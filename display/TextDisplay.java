@@ -1,43 +1,309 @@
 package display;
 
 import maze.Maze;
+import metrics.Counter;
+import metrics.Histogram;
+import metrics.Metrics;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
  * A class that initialises the display in the terminal to visualise and navigate the maze.
+ * The first display prints the whole maze, and every display after that moves the cursor
+ * back over the maze and prints only the cells that have changed since the last display.
+ * When there has been a single move since the last display, only the cell the player left
+ * and the cell they moved to are compared, so each display after a move takes constant
+ * time however large the maze is.
  */
 public class TextDisplay {
-    /** The unicode character to print a square on the terminal */
-    private static final String SQUARE = "\u2588" + "\u001B[0m";
+    /** The unicode character to print a square on the terminal, encoded in UTF-8 */
+    private static final byte[] SQUARE = "\u2588".getBytes(StandardCharsets.UTF_8);
+
+    /** The escape code to reset the terminal colour */
+    private static final byte[] RESET = "\u001B[0m".getBytes(StandardCharsets.UTF_8);
+
+    /** The first bytes of every escape code that moves the cursor */
+    private static final byte[] ESCAPE = "\u001B[".getBytes(StandardCharsets.UTF_8);
+
+    /** The escape code for the colour of each cell code, indexed by the code */
+    private static final byte[][] COLOURS = getColours();
+
+    /** The initial capacity of the output buffer */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** The time taken by each display, including writing it to the stream */
+    private static final Histogram RENDER_TIME = Metrics.histogram("text_render_seconds",
+            "Time taken to build and write each display of the maze in the terminal.");
+
+    /** The number of bytes written to the terminal by every display */
+    private static final Counter BYTES_WRITTEN = Metrics.counter("text_bytes_written_total",
+            "Bytes written to the terminal to display the maze.");
 
     /** The instance of Maze which contains all the maze data */
     private Maze maze;
 
+    /** The stream to print the maze to */
+    private PrintStream out;
+
+    /** The bytes to print for the current display, reused between displays */
+    private byte[] buffer;
+
+    /** The number of bytes in the buffer */
+    private int size;
+
+    /** The cell code of every cell as it was last printed, or null before the first display */
+    private byte[] printed;
+
+    /** The colour code last written to the buffer, or -1 if the colour has been reset */
+    private int colour;
+
+    /** The row of the cursor, counting rows of the maze from the top */
+    private int cursorY;
+
+    /** The column of the cursor */
+    private int cursorX;
+
+    /** The x coordinate of the player at the last display */
+    private int playerX;
+
+    /** The y coordinate of the player at the last display */
+    private int playerY;
+
+    /** The number of moves made in the maze at the last display */
+    private long moveCount;
+
+    /** The number of times the maze had been reset at the last display */
+    private long resetCount;
+
     /**
      * The constructor for the TextDisplay class
      *
      * @param maze an instance of Maze to display and navigate
      */
     public TextDisplay(Maze maze) {
+        this(maze, System.out);
+    }
+
+    /**
+     * The constructor for the TextDisplay class which prints to the specified stream.
+     *
+     * @param maze an instance of Maze to display and navigate
+     * @param out the stream to print the maze to
+     */
+    public TextDisplay(Maze maze, PrintStream out) {
         this.maze = maze;
+        this.out = out;
+        this.buffer = new byte[INITIAL_CAPACITY];
     }
 
     /**
-     * Prints all components of the maze onto the terminal.
+     * Prints all components of the maze onto the terminal the first time it is called, and
+     * after that prints only the components that have changed in place.
      */
     public void displayMaze() {
+        long startTime = Metrics.ENABLED ? System.nanoTime() : 0;
+        this.size = 0;
+        this.colour = -1;
+        if (this.printed == null) {
+            appendFrame();
+        } else {
+            appendChanges();
+        }
+        this.playerX = this.maze.getPlayerX();
+        this.playerY = this.maze.getPlayerY();
+        this.moveCount = this.maze.getMoveCount();
+        this.resetCount = this.maze.getResetCount();
+        this.out.write(this.buffer, 0, this.size);
+        this.out.flush();
+        if (Metrics.ENABLED) {
+            RENDER_TIME.recordSince(startTime);
+            BYTES_WRITTEN.add(this.size);
+        }
+    }
+
+    /**
+     * Adds every cell of the maze to the buffer, row by row, and leaves the cursor at the
+     * start of the line after the blank line below the maze.
+     */
+    private void appendFrame() {
         int mazeX = this.maze.getMazeX();
         int mazeY = this.maze.getMazeY();
+        this.printed = new byte[mazeX * mazeY];
 
-        // Make each maze row into a string
-        StringBuilder line = new StringBuilder();
         for (int y = 0; y < mazeY; y++) {
             for (int x = 0; x < mazeX; x++) {
-                line.append(this.maze.getElement(x, y).getTextColour());
-                line.append(SQUARE);
+                appendCell(x, y);
+            }
+            appendColourReset();
+            append((byte) '\n');
+        }
+        append((byte) '\n');
+        this.cursorY = mazeY + 1;
+        this.cursorX = 0;
+    }
+
+    /**
+     * Adds each cell that has changed since the last display to the buffer, moving the
+     * cursor to it first, and then moves the cursor back below the maze.
+     */
+    private void appendChanges() {
+        int homeY = this.cursorY;
+        long moves = this.maze.getMoveCount() - this.moveCount;
+        if (this.maze.getResetCount() == this.resetCount && moves <= 1) {
+            // A single move only changes the cell the player left and the cell they moved to,
+            // which are added in the same order as a scan of every cell would add them.
+            int x = this.maze.getPlayerX();
+            int y = this.maze.getPlayerY();
+            if (y < this.playerY || y == this.playerY && x < this.playerX) {
+                appendIfChanged(x, y);
+                appendIfChanged(this.playerX, this.playerY);
+            } else {
+                appendIfChanged(this.playerX, this.playerY);
+                appendIfChanged(x, y);
+            }
+        } else {
+            // The cells changed by earlier moves or a reset are not known, so compare them all.
+            int mazeX = this.maze.getMazeX();
+            int mazeY = this.maze.getMazeY();
+            for (int y = 0; y < mazeY; y++) {
+                for (int x = 0; x < mazeX; x++) {
+                    appendIfChanged(x, y);
+                }
             }
-            System.out.println(line);
-            line = new StringBuilder();
         }
-        System.out.print('\n');
+
+        // Nothing has changed, so nothing needs to be printed.
+        if (this.size == 0) {
+            return;
+        }
+        appendColourReset();
+        appendCursorMove(homeY - this.cursorY, 'B');
+        append((byte) '\r');
+        this.cursorY = homeY;
+        this.cursorX = 0;
+    }
+
+    /**
+     * Adds a cell to the buffer if it has changed since it was last printed, moving the
+     * cursor to it first.
+     */
+    private void appendIfChanged(int x, int y) {
+        if (this.maze.getCell(x, y) != this.printed[y * this.maze.getMazeX() + x]) {
+            moveCursor(x, y);
+            appendCell(x, y);
+            this.cursorX++;
+        }
+    }
+
+    /**
+     * Adds a single cell to the buffer, with its colour if it differs from the colour of the
+     * last cell added, and records the cell as printed.
+     */
+    private void appendCell(int x, int y) {
+        byte code = this.maze.getCell(x, y);
+        this.printed[y * this.maze.getMazeX() + x] = code;
+        if (code != this.colour) {
+            append(COLOURS[code]);
+            this.colour = code;
+        }
+        append(SQUARE);
+    }
+
+    /**
+     * Adds the escape codes to move the cursor from its current position to a cell.
+     */
+    private void moveCursor(int x, int y) {
+        if (y == this.cursorY && x == this.cursorX) {
+            return;
+        }
+        if (y < this.cursorY) {
+            appendCursorMove(this.cursorY - y, 'A');
+        } else {
+            appendCursorMove(y - this.cursorY, 'B');
+        }
+        // Columns are counted from 1 by the terminal.
+        appendCursorMove(x + 1, 'G');
+        this.cursorY = y;
+        this.cursorX = x;
+    }
+
+    /**
+     * Adds an escape code that moves the cursor, or does nothing if the cursor moves up or
+     * down by no rows.
+     */
+    private void appendCursorMove(int count, char command) {
+        if (count == 0 && command != 'G') {
+            return;
+        }
+        append(ESCAPE);
+        appendNumber(count);
+        append((byte) command);
+    }
+
+    /**
+     * Adds the escape code to reset the colour, if a colour has been set.
+     */
+    private void appendColourReset() {
+        if (this.colour != -1) {
+            append(RESET);
+            this.colour = -1;
+        }
+    }
+
+    /**
+     * Adds the decimal digits of a non-negative number to the buffer.
+     */
+    private void appendNumber(int number) {
+        int digits = 1;
+        for (int rest = number / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        for (int i = this.size + digits - 1; i >= this.size; i--) {
+            this.buffer[i] = (byte) ('0' + (number % 10));
+            number /= 10;
+        }
+        this.size += digits;
+    }
+
+    /**
+     * Adds bytes to the buffer.
+     */
+    private void append(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, this.buffer, this.size, bytes.length);
+        this.size += bytes.length;
+    }
+
+    /**
+     * Adds a single byte to the buffer.
+     */
+    private void append(byte b) {
+        ensureCapacity(1);
+        this.buffer[this.size++] = b;
+    }
+
+    /**
+     * Grows the buffer if it cannot fit the specified number of extra bytes.
+     */
+    private void ensureCapacity(int extra) {
+        if (this.size + extra > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer,
+                    Math.max(this.buffer.length * 2, this.size + extra));
+        }
+    }
+
+    /**
+     * Gets the UTF-8 encoded text colour for each cell code, indexed by the code.
+     */
+    private static byte[][] getColours() {
+        byte[][] colours = new byte[Maze.BACK_TRACKED_PATH + 1][];
+        for (byte code = 0; code < colours.length; code++) {
+            colours[code] = Maze.getComponent(code).getTextColour()
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+        return colours;
     }
 }
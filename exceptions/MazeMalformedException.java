@@ -5,4 +5,19 @@ package exceptions;
  * the given format.
  */
 public class MazeMalformedException extends Exception {
+    /**
+     * Constructs the exception without a detail message.
+     */
+    public MazeMalformedException() {
+        super();
+    }
+
+    /**
+     * Constructs the exception with a message describing where the problem was found.
+     *
+     * @param message the line and column of the problem, and what was expected there
+     */
+    public MazeMalformedException(String message) {
+        super(message);
+    }
 }
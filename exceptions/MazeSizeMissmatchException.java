@@ -5,4 +5,19 @@ package exceptions;
  * file does not match the number of columns or rows in the file.
  */
 public class MazeSizeMissmatchException extends Exception {
+    /**
+     * Constructs the exception without a detail message.
+     */
+    public MazeSizeMissmatchException() {
+        super();
+    }
+
+    /**
+     * Constructs the exception with a message describing where the problem was found.
+     *
+     * @param message the line and column of the problem, and what was expected there
+     */
+    public MazeSizeMissmatchException(String message) {
+        super(message);
+    }
 }
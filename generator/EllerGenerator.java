@@ -0,0 +1,175 @@
+package generator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A class that generates mazes with Eller's algorithm, which builds the maze one row at a
+ * time and only remembers which cells of the current row are connected. This means a maze
+ * of any height can be written straight to a file using memory proportional to its width.
+ */
+public class EllerGenerator implements MazeGenerator {
+
+    /**
+     * An interface for receiving each row of the maze as it is generated.
+     */
+    private interface RowWriter {
+        /**
+         * Receives the next row of the maze. The array is reused for later rows.
+         *
+         * @param row the characters of the row
+         * @throws IOException if the row cannot be written
+         */
+        void write(char[] row) throws IOException;
+    }
+
+    @Override
+    public char[][] generate(int mazeY, int mazeX, long seed) throws IllegalArgumentException {
+        char[][] mazeData = new char[mazeY][];
+        int[] rowNumber = new int[1];
+        try {
+            generateRows(mazeY, mazeX, seed, row -> mazeData[rowNumber[0]++] = row.clone());
+        } catch (IOException ex) {
+            // Rows are only copied into memory, so they cannot fail to be written.
+            throw new IllegalStateException(ex);
+        }
+        return mazeData;
+    }
+
+    /**
+     * Generates a maze of the specified size and writes it to a file one row at a time,
+     * without holding the whole maze in memory.
+     *
+     * @param mazeY length of the maze in y-axis, which must be odd and at least 3
+     * @param mazeX length of the maze in x-axis, which must be odd and at least 3
+     * @param seed the seed for the random choices made by the algorithm
+     * @param filename the path of the file to write
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if either length is even or less than 3, or both are 3
+     */
+    @Override
+    public void write(int mazeY, int mazeX, long seed, String filename) throws IOException,
+            IllegalArgumentException {
+        MazeGrid.checkSize(mazeY, mazeX);
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(filename),
+                StandardCharsets.US_ASCII)) {
+            writer.write(mazeY + " " + mazeX);
+            generateRows(mazeY, mazeX, seed, row -> {
+                writer.newLine();
+                writer.write(row);
+            });
+        }
+    }
+
+    /**
+     * Generates the maze row by row. Each cell of the current row has a label for the set
+     * of cells it is connected to, and a union-find structure over the labels joins sets
+     * within the row. Labels are renumbered for every row so they stay below the width.
+     */
+    private void generateRows(int mazeY, int mazeX, long seed, RowWriter writer)
+            throws IOException, IllegalArgumentException {
+        MazeGrid.checkSize(mazeY, mazeX);
+        int width = mazeX / 2;
+        int height = mazeY / 2;
+        Random random = new Random(seed);
+
+        int[] set = new int[width];
+        int[] parent = new int[width];
+        int[] lastCell = new int[width];
+        int[] newLabel = new int[width];
+        boolean[] hasDown = new boolean[width];
+        boolean[] down = new boolean[width];
+        char[] row = new char[mazeX];
+        for (int i = 0; i < width; i++) {
+            set[i] = i;
+        }
+
+        Arrays.fill(row, MazeGrid.WALL);
+        writer.write(row);
+        for (int r = 0; r < height; r++) {
+            boolean lastRow = r == height - 1;
+            for (int label = 0; label < width; label++) {
+                parent[label] = label;
+            }
+
+            // Randomly join neighbouring cells in different sets, or join all of them on the
+            // last row so the whole maze is connected.
+            Arrays.fill(row, MazeGrid.WALL);
+            for (int i = 0; i < width; i++) {
+                row[2 * i + 1] = MazeGrid.PATH;
+                if (i == width - 1) {
+                    continue;
+                }
+                int root = find(parent, set[i]);
+                int otherRoot = find(parent, set[i + 1]);
+                if (root != otherRoot && (lastRow || random.nextBoolean())) {
+                    parent[otherRoot] = root;
+                    row[2 * i + 2] = MazeGrid.PATH;
+                }
+            }
+            if (r == 0) {
+                row[1] = MazeGrid.START;
+            }
+            if (lastRow) {
+                row[mazeX - 2] = MazeGrid.END;
+                writer.write(row);
+                break;
+            }
+            writer.write(row);
+
+            // Randomly open cells downwards, making sure every set opens at least once.
+            for (int i = 0; i < width; i++) {
+                set[i] = find(parent, set[i]);
+                hasDown[set[i]] = false;
+                lastCell[set[i]] = i;
+            }
+            Arrays.fill(row, MazeGrid.WALL);
+            for (int i = 0; i < width; i++) {
+                down[i] = random.nextBoolean() || (!hasDown[set[i]] && lastCell[set[i]] == i);
+                if (down[i]) {
+                    hasDown[set[i]] = true;
+                    row[2 * i + 1] = MazeGrid.PATH;
+                }
+            }
+            writer.write(row);
+
+            // Cells that opened downwards keep their set in the next row, and the rest start
+            // new sets. Labels are renumbered from 0 in order of first use.
+            Arrays.fill(newLabel, -1);
+            int next = 0;
+            for (int i = 0; i < width; i++) {
+                if (down[i]) {
+                    if (newLabel[set[i]] < 0) {
+                        newLabel[set[i]] = next++;
+                    }
+                    set[i] = newLabel[set[i]];
+                }
+            }
+            for (int i = 0; i < width; i++) {
+                if (!down[i]) {
+                    set[i] = next++;
+                }
+            }
+        }
+
+        Arrays.fill(row, MazeGrid.WALL);
+        writer.write(row);
+    }
+
+    /**
+     * Finds the root of the set containing the specified label, halving the path to the
+     * root along the way.
+     */
+    private static int find(int[] parent, int label) {
+        while (parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+}
@@ -0,0 +1,69 @@
+package generator;
+
+import java.io.IOException;
+
+/**
+ * A class that generates a maze file based on user input from command line.
+ * <p>
+ * Usage: {@code java generator.GeneratorLauncher {algorithm} {y length} {x length} {seed}
+ * {output file}}, where the algorithm is one of BACKTRACKER, KRUSKAL, PRIM or ELLER.
+ * </p>
+ */
+public class GeneratorLauncher {
+    /** The constant to choose the recursive backtracker in the command line arguments */
+    private static final String BACKTRACKER_ARG = "BACKTRACKER";
+
+    /** The constant to choose Kruskal's algorithm in the command line arguments */
+    private static final String KRUSKAL_ARG = "KRUSKAL";
+
+    /** The constant to choose Prim's algorithm in the command line arguments */
+    private static final String PRIM_ARG = "PRIM";
+
+    /** The constant to choose Eller's algorithm in the command line arguments */
+    private static final String ELLER_ARG = "ELLER";
+
+    /** The number of command line arguments needed */
+    private static final int NUM_OF_ARGS = 5;
+
+    /**
+     * Makes an instance of the generator with the specified name.
+     *
+     * @param name the name of the algorithm from the command line arguments
+     * @return an instance of the corresponding generator
+     * @throws IllegalArgumentException if there is no generator with that name
+     */
+    public static MazeGenerator getGenerator(String name) throws IllegalArgumentException {
+        switch (name.toUpperCase()) {
+            case BACKTRACKER_ARG -> {
+                return new RecursiveBacktrackerGenerator();
+            }
+            case KRUSKAL_ARG -> {
+                return new KruskalGenerator();
+            }
+            case PRIM_ARG -> {
+                return new PrimGenerator();
+            }
+            case ELLER_ARG -> {
+                return new EllerGenerator();
+            }
+            default -> throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Generates a maze with the algorithm, size and seed from the command line arguments,
+     * and writes it to the output file.
+     *
+     * @param args the algorithm, y length, x length, seed and output file
+     * @throws IOException if the output file cannot be written
+     * @throws IllegalArgumentException if the arguments do not match the required format
+     */
+    public static void main(String[] args) throws IOException, IllegalArgumentException {
+        if (args.length != NUM_OF_ARGS) {
+            throw new IllegalArgumentException();
+        }
+        MazeGenerator generator = getGenerator(args[0]);
+        generator.write(Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                Long.parseLong(args[3]), args[4]);
+    }
+}
@@ -0,0 +1,71 @@
+package generator;
+
+import java.util.Random;
+
+/**
+ * A class that generates mazes with Kruskal's algorithm, which removes the walls between
+ * cells in a random order whenever the two cells are not yet connected. A union-find
+ * structure keeps track of which cells are connected. The mazes have many short dead ends.
+ */
+public class KruskalGenerator implements MazeGenerator {
+
+    @Override
+    public char[][] generate(int mazeY, int mazeX, long seed) throws IllegalArgumentException {
+        MazeGrid.checkSize(mazeY, mazeX);
+        int width = mazeX / 2;
+        int height = mazeY / 2;
+        int cells = width * height;
+        char[][] mazeData = MazeGrid.newGrid(mazeY, mazeX);
+        Random random = new Random(seed);
+
+        // Each wall is numbered 2 * cell for the wall below the cell, and 2 * cell + 1 for
+        // the wall to its right. Walls on the edge of the maze are left out.
+        int[] walls = new int[2 * cells];
+        int count = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            MazeGrid.carve(mazeData, width, cell, -1);
+            if (cell / width < height - 1) {
+                walls[count++] = 2 * cell;
+            }
+            if (cell % width < width - 1) {
+                walls[count++] = 2 * cell + 1;
+            }
+        }
+
+        // Shuffle the walls with a Fisher-Yates shuffle.
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int wall = walls[i];
+            walls[i] = walls[j];
+            walls[j] = wall;
+        }
+
+        int[] parent = new int[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            parent[cell] = cell;
+        }
+        for (int i = 0; i < count; i++) {
+            int cell = walls[i] / 2;
+            int other = walls[i] % 2 == 0 ? cell + width : cell + 1;
+            int root = find(parent, cell);
+            int otherRoot = find(parent, other);
+            if (root != otherRoot) {
+                parent[otherRoot] = root;
+                MazeGrid.carve(mazeData, width, other, cell);
+            }
+        }
+        return MazeGrid.addEndPoints(mazeData);
+    }
+
+    /**
+     * Finds the root of the set containing the specified cell, halving the path to the
+     * root along the way.
+     */
+    private static int find(int[] parent, int cell) {
+        while (parent[cell] != cell) {
+            parent[cell] = parent[parent[cell]];
+            cell = parent[cell];
+        }
+        return cell;
+    }
+}
@@ -0,0 +1,39 @@
+package generator;
+
+import io.MazeFileConverter;
+
+import java.io.IOException;
+
+/**
+ * An interface for algorithms that generate mazes in the format read by io.FileLoader.
+ * Generated mazes have odd lengths, walls around every edge, the start point in the top
+ * left cell and the end point in the bottom right cell. The same size and seed always
+ * give the same maze.
+ */
+public interface MazeGenerator {
+    /**
+     * Generates a maze of the specified size.
+     *
+     * @param mazeY length of the maze in y-axis, which must be odd and at least 3
+     * @param mazeX length of the maze in x-axis, which must be odd and at least 3
+     * @param seed the seed for the random choices made by the algorithm
+     * @return a 2D array of the maze characters
+     * @throws IllegalArgumentException if either length is even or less than 3, or both are 3
+     */
+    char[][] generate(int mazeY, int mazeX, long seed) throws IllegalArgumentException;
+
+    /**
+     * Generates a maze of the specified size and writes it to a file.
+     *
+     * @param mazeY length of the maze in y-axis, which must be odd and at least 3
+     * @param mazeX length of the maze in x-axis, which must be odd and at least 3
+     * @param seed the seed for the random choices made by the algorithm
+     * @param filename the path of the file to write
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if either length is even or less than 3, or both are 3
+     */
+    default void write(int mazeY, int mazeX, long seed, String filename) throws IOException,
+            IllegalArgumentException {
+        MazeFileConverter.writeText(generate(mazeY, mazeX, seed), filename);
+    }
+}
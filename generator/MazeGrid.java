@@ -0,0 +1,97 @@
+package generator;
+
+import java.util.Arrays;
+
+/**
+ * A class with the operations shared by generators that carve passages into a grid of
+ * walls. The grid has a cell at every odd x and y coordinate, and each cell is numbered
+ * row by row, so cell n is at x = 2 * (n % width) + 1 and y = 2 * (n / width) + 1.
+ */
+final class MazeGrid {
+    /** The character for a wall */
+    static final char WALL = '#';
+
+    /** The character for a path */
+    static final char PATH = ' ';
+
+    /** The character for the start point */
+    static final char START = 'S';
+
+    /** The character for the end point */
+    static final char END = 'E';
+
+    private MazeGrid() {
+    }
+
+    /**
+     * Checks that the specified lengths can hold a maze.
+     *
+     * @throws IllegalArgumentException if either length is even or less than 3, or there is
+     *         only room for one cell
+     */
+    static void checkSize(int mazeY, int mazeX) throws IllegalArgumentException {
+        if (mazeY < 3 || mazeX < 3 || mazeY % 2 == 0 || mazeX % 2 == 0
+                || (mazeY == 3 && mazeX == 3)) {
+            throw new IllegalArgumentException("Size " + mazeY + " " + mazeX
+                    + " is not two odd numbers of at least 3 with room for two cells");
+        }
+    }
+
+    /**
+     * Makes a grid of the specified size that is entirely wall.
+     */
+    static char[][] newGrid(int mazeY, int mazeX) {
+        char[][] mazeData = new char[mazeY][mazeX];
+        for (char[] row : mazeData) {
+            Arrays.fill(row, WALL);
+        }
+        return mazeData;
+    }
+
+    /**
+     * Opens the specified cell, and the wall between it and the other cell if the other
+     * cell is not negative.
+     */
+    static void carve(char[][] mazeData, int width, int cell, int other) {
+        int x = 2 * (cell % width) + 1;
+        int y = 2 * (cell / width) + 1;
+        mazeData[y][x] = PATH;
+        if (other >= 0) {
+            int otherX = 2 * (other % width) + 1;
+            int otherY = 2 * (other / width) + 1;
+            mazeData[(y + otherY) / 2][(x + otherX) / 2] = PATH;
+        }
+    }
+
+    /**
+     * Puts the start point in the top left cell and the end point in the bottom right cell.
+     */
+    static char[][] addEndPoints(char[][] mazeData) {
+        mazeData[1][1] = START;
+        mazeData[mazeData.length - 2][mazeData[0].length - 2] = END;
+        return mazeData;
+    }
+
+    /**
+     * Puts the cells next to the specified cell into neighbours, and returns how many
+     * there are.
+     */
+    static int getNeighbours(int cell, int width, int height, int[] neighbours) {
+        int x = cell % width;
+        int y = cell / width;
+        int count = 0;
+        if (y > 0) {
+            neighbours[count++] = cell - width;
+        }
+        if (y < height - 1) {
+            neighbours[count++] = cell + width;
+        }
+        if (x < width - 1) {
+            neighbours[count++] = cell + 1;
+        }
+        if (x > 0) {
+            neighbours[count++] = cell - 1;
+        }
+        return count;
+    }
+}
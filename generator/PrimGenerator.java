@@ -0,0 +1,71 @@
+package generator;
+
+import java.util.Random;
+
+/**
+ * A class that generates mazes with a randomised version of Prim's algorithm, which grows
+ * the maze from a single cell by repeatedly connecting a random cell on its frontier to a
+ * random neighbour already in the maze. The mazes branch often and have short passages.
+ */
+public class PrimGenerator implements MazeGenerator {
+    /** The state of a cell that is not in the maze or on its frontier */
+    private static final byte OUTSIDE = 0;
+
+    /** The state of a cell on the frontier of the maze */
+    private static final byte FRONTIER = 1;
+
+    /** The state of a cell in the maze */
+    private static final byte INSIDE = 2;
+
+    @Override
+    public char[][] generate(int mazeY, int mazeX, long seed) throws IllegalArgumentException {
+        MazeGrid.checkSize(mazeY, mazeX);
+        int width = mazeX / 2;
+        int height = mazeY / 2;
+        char[][] mazeData = MazeGrid.newGrid(mazeY, mazeX);
+        Random random = new Random(seed);
+
+        byte[] state = new byte[width * height];
+        int[] frontier = new int[width * height];
+        int[] neighbours = new int[4];
+
+        state[0] = INSIDE;
+        MazeGrid.carve(mazeData, width, 0, -1);
+        int size = addFrontier(0, width, height, state, frontier, 0, neighbours);
+        while (size > 0) {
+            // Remove a random cell from the frontier by swapping the last cell into its place.
+            int index = random.nextInt(size);
+            int cell = frontier[index];
+            frontier[index] = frontier[--size];
+
+            // Connect it to a random neighbour that is already in the maze.
+            int count = MazeGrid.getNeighbours(cell, width, height, neighbours);
+            int inside = 0;
+            for (int i = 0; i < count; i++) {
+                if (state[neighbours[i]] == INSIDE) {
+                    neighbours[inside++] = neighbours[i];
+                }
+            }
+            MazeGrid.carve(mazeData, width, cell, neighbours[random.nextInt(inside)]);
+            state[cell] = INSIDE;
+            size = addFrontier(cell, width, height, state, frontier, size, neighbours);
+        }
+        return MazeGrid.addEndPoints(mazeData);
+    }
+
+    /**
+     * Adds the neighbours of the specified cell that are outside the maze to the frontier,
+     * and returns the new size of the frontier.
+     */
+    private static int addFrontier(int cell, int width, int height, byte[] state,
+            int[] frontier, int size, int[] neighbours) {
+        int count = MazeGrid.getNeighbours(cell, width, height, neighbours);
+        for (int i = 0; i < count; i++) {
+            if (state[neighbours[i]] == OUTSIDE) {
+                state[neighbours[i]] = FRONTIER;
+                frontier[size++] = neighbours[i];
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,53 @@
+package generator;
+
+import maze.IntStack;
+
+import java.util.Random;
+
+/**
+ * A class that generates mazes with the recursive backtracker algorithm, which carves a
+ * random path until it reaches a dead end and then backtracks to the last cell with an
+ * unvisited neighbour. The mazes have long, winding passages. The recursion is replaced
+ * with an explicit stack so large mazes can be generated.
+ */
+public class RecursiveBacktrackerGenerator implements MazeGenerator {
+
+    @Override
+    public char[][] generate(int mazeY, int mazeX, long seed) throws IllegalArgumentException {
+        MazeGrid.checkSize(mazeY, mazeX);
+        int width = mazeX / 2;
+        int height = mazeY / 2;
+        char[][] mazeData = MazeGrid.newGrid(mazeY, mazeX);
+        Random random = new Random(seed);
+
+        boolean[] visited = new boolean[width * height];
+        IntStack stack = new IntStack();
+        int[] neighbours = new int[4];
+
+        stack.push(0);
+        visited[0] = true;
+        MazeGrid.carve(mazeData, width, 0, -1);
+        while (!stack.isEmpty()) {
+            int cell = stack.peek();
+
+            // Collect the neighbours that have not been visited yet.
+            int count = MazeGrid.getNeighbours(cell, width, height, neighbours);
+            int unvisited = 0;
+            for (int i = 0; i < count; i++) {
+                if (!visited[neighbours[i]]) {
+                    neighbours[unvisited++] = neighbours[i];
+                }
+            }
+
+            if (unvisited == 0) {
+                stack.pop();
+                continue;
+            }
+            int next = neighbours[random.nextInt(unvisited)];
+            visited[next] = true;
+            MazeGrid.carve(mazeData, width, next, cell);
+            stack.push(next);
+        }
+        return MazeGrid.addEndPoints(mazeData);
+    }
+}
@@ -0,0 +1,188 @@
+package io;
+
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.util.zip.CRC32;
+
+/**
+ * A class that loads a maze from the binary maze format into a 2D char array. The file is
+ * memory-mapped, so it is read straight from the page cache without any parsing.
+ * <p>
+ * A binary maze file is made of a header of nine big-endian integers:
+ * the magic number, the format version, the length of the maze in y-axis and x-axis,
+ * the x and y coordinates of the start point, the x and y coordinates of the end point,
+ * and a CRC32 checksum of the body.
+ * The body follows the header, with 2 bits per cell in row-major order and four cells per
+ * byte, starting from the lowest bits of each byte. The format keeps only whether each cell
+ * is a path, so every path is loaded as ' '.
+ * </p>
+ */
+public class BinaryFileLoader implements FileInterface {
+    /** The magic number at the start of every binary maze file, which is "MAZB" in ASCII */
+    public static final int MAGIC = 0x4D415A42;
+
+    /** The version of the binary maze format */
+    public static final int VERSION = 1;
+
+    /** The size of the header in bytes */
+    public static final int HEADER_SIZE = 9 * Integer.BYTES;
+
+    /** The number of cells packed into each byte of the body */
+    public static final int CELLS_PER_BYTE = 4;
+
+    /** The number of bits used for each cell */
+    public static final int BITS_PER_CELL = 2;
+
+    /** The 2-bit code of a wall */
+    public static final int WALL_CODE = 0;
+
+    /** The 2-bit code of a path */
+    public static final int PATH_CODE = 1;
+
+    /** The 2-bit code of the start point */
+    public static final int START_CODE = 2;
+
+    /** The 2-bit code of the end point */
+    public static final int END_CODE = 3;
+
+    /** The maze character for each 2-bit code, indexed by the code */
+    private static final char[] CODE_LETTERS = {'#', ' ', 'S', 'E'};
+
+    /**
+     * Determines whether the specified file starts with the magic number of a binary
+     * maze file.
+     *
+     * @param filename the path to the file, which may be null
+     * @return true if the file is a binary maze file, else return false.
+     */
+    public static boolean isBinaryFile(String filename) {
+        return MazeFileHeader.hasMagic(filename, MAGIC);
+    }
+
+    /**
+     * Gets the number of bytes in the body of a binary maze file for a maze of the
+     * specified size.
+     *
+     * @param mazeY length of the maze in y-axis
+     * @param mazeX length of the maze in x-axis
+     * @return number of bytes needed to hold every cell.
+     */
+    public static long getBodySize(int mazeY, int mazeX) {
+        return ((long) mazeY * mazeX + CELLS_PER_BYTE - 1) / CELLS_PER_BYTE;
+    }
+
+    /**
+     * Loads a binary maze file and converts it to a 2D char array.
+     *
+     * @param filename The path to the maze file to be loaded.
+     * @return a 2D array with all data from the maze file.
+     * @throws MazeMalformedException if the header or checksum is wrong, or the start and end
+     *              points in the header do not match the body
+     * @throws MazeSizeMissmatchException if the size of the body does not match the size
+     *              given in the header
+     * @throws IllegalArgumentException if the file is not a binary maze file
+     * @throws FileNotFoundException if the filename cannot be found
+     */
+    @Override
+    public char[][] load(String filename) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+
+        if (filename == null) {
+            return new FileLoader().load((String) null);
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filename))) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new MazeMalformedException("File is shorter than the header");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+            return load(buffer);
+        } catch (IOException ex) {
+            throw new FileNotFoundException(filename);
+        }
+    }
+
+    /**
+     * Checks the header and body of a mapped binary maze file and converts the body to a
+     * 2D char array.
+     */
+    private char[][] load(MappedByteBuffer buffer) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a binary maze file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new MazeMalformedException("Unsupported binary maze version " + version);
+        }
+
+        int mazeY = buffer.getInt();
+        int mazeX = buffer.getInt();
+        int startX = buffer.getInt();
+        int startY = buffer.getInt();
+        int endX = buffer.getInt();
+        int endY = buffer.getInt();
+        int checksum = buffer.getInt();
+
+        // Check the size of the maze is odd and the start and end points are inside it.
+        if (mazeY % 2 == 0 || mazeY < 1 || mazeX % 2 == 0 || mazeX < 1) {
+            throw new MazeMalformedException("Size " + mazeY + " " + mazeX
+                    + " is not two positive odd numbers");
+        }
+        if (startX < 0 || startX >= mazeX || startY < 0 || startY >= mazeY
+                || endX < 0 || endX >= mazeX || endY < 0 || endY >= mazeY) {
+            throw new MazeMalformedException("Start or end point is outside the maze");
+        }
+        if (buffer.remaining() != getBodySize(mazeY, mazeX)) {
+            throw new MazeSizeMissmatchException("Expected " + getBodySize(mazeY, mazeX)
+                    + " bytes of maze data but found " + buffer.remaining());
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new MazeMalformedException("Checksum does not match maze data");
+        }
+
+        // Unpack the cells four at a time from each byte.
+        char[][] mazeData = new char[mazeY][mazeX];
+        int numOfStart = 0;
+        int numOfEnd = 0;
+        int bits = 0;
+        int bitsLeft = 0;
+        for (int y = 0; y < mazeY; y++) {
+            char[] row = mazeData[y];
+            for (int x = 0; x < mazeX; x++) {
+                if (bitsLeft == 0) {
+                    bits = buffer.get() & 0xFF;
+                    bitsLeft = CELLS_PER_BYTE;
+                }
+                int code = bits & 0b11;
+                bits >>>= BITS_PER_CELL;
+                bitsLeft--;
+
+                if (code == START_CODE) {
+                    numOfStart++;
+                } else if (code == END_CODE) {
+                    numOfEnd++;
+                }
+                row[x] = CODE_LETTERS[code];
+            }
+        }
+
+        // Check if the start and end points in the header are the only ones in the body.
+        if (numOfStart != 1 || numOfEnd != 1 || mazeData[startY][startX] != 'S'
+                || mazeData[endY][endX] != 'E') {
+            throw new MazeMalformedException("Start and end points in the header do not "
+                    + "match the maze data");
+        }
+        return mazeData;
+    }
+}
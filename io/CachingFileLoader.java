@@ -0,0 +1,252 @@
+package io;
+
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+import maze.Maze;
+import maze.MazeLayout;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * A class that loads mazes through another FileInterface and keeps the parsed mazes in a
+ * least recently used cache, so loading a maze file that has not changed does not read or
+ * parse it again.
+ * <p>
+ * Mazes are cached by the canonical path of their file, and a cached maze is only used if
+ * the file has the same modification time and size as when it was loaded. The cache holds
+ * up to a maximum total number of cells, evicting the least recently used mazes first.
+ * Only the immutable MazeLayout of each maze is cached, and loadMaze() hands out a new Maze
+ * sharing the cached layout, so handing out a maze takes constant time.
+ * </p>
+ */
+public class CachingFileLoader implements FileInterface {
+    /** The default maximum total number of cells of the cached mazes */
+    public static final long DEFAULT_MAX_CELLS = 1L << 26;
+
+    /** The loader to load maze files with, or null to choose one from each filename */
+    private final FileInterface loader;
+
+    /** The maximum total number of cells of the cached mazes */
+    private final long maxCells;
+
+    /** The cached mazes by canonical path, from least to most recently used */
+    private final LinkedHashMap<Path, CachedMaze> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The total number of cells of the cached mazes */
+    private long cachedCells;
+
+    /** The number of loads that used a cached maze */
+    private long hits;
+
+    /** The number of loads that had to load the maze file */
+    private long misses;
+
+    /**
+     * Constructor for a cache of up to DEFAULT_MAX_CELLS cells, which loads binary maze
+     * files with BinaryFileLoader and any other maze files with FileLoader.
+     */
+    public CachingFileLoader() {
+        this(null, DEFAULT_MAX_CELLS);
+    }
+
+    /**
+     * Constructor for a cache which loads maze files with the specified loader.
+     *
+     * @param loader the loader to load maze files with, or null to use BinaryFileLoader for
+     *               binary maze files and FileLoader for any other maze files. Tiled maze
+     *               files are always paged in with TiledCellStore.
+     * @param maxCells the maximum total number of cells of the cached mazes
+     */
+    public CachingFileLoader(FileInterface loader, long maxCells) {
+        this.loader = loader;
+        this.maxCells = maxCells;
+    }
+
+    /**
+     * Loads a maze file into a 2D char array, from the cache if the file has not changed
+     * since it was last loaded. Only the layout of each maze is cached, so the array is
+     * rebuilt from it and every path is returned as ' ', even if the file used '.'.
+     *
+     * @param filename path of the maze file
+     * @return a 2D array with the walls, start point and end point of the maze.
+     * @throws MazeMalformedException if any line in maze file has incorrect format
+     * @throws MazeSizeMissmatchException if size of line or number of lines in maze file does
+     *              not match given length
+     * @throws IllegalArgumentException if the maze file has any invalid characters
+     * @throws FileNotFoundException if the filename cannot be found
+     */
+    @Override
+    public char[][] load(String filename) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        return loadLayout(filename, this.loader).toMazeData();
+    }
+
+    /**
+     * Loads a maze file into a Maze, from the cache if the file has not changed since it
+     * was last loaded.
+     *
+     * @param filename path of the maze file
+     * @return a new run through the cached maze layout.
+     * @throws MazeMalformedException if any line in maze file has incorrect format
+     * @throws MazeSizeMissmatchException if size of line or number of lines in maze file does
+     *              not match given length
+     * @throws IllegalArgumentException if the maze file has any invalid characters
+     * @throws FileNotFoundException if the filename cannot be found
+     */
+    public Maze loadMaze(String filename) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        return loadMaze(filename, this.loader);
+    }
+
+    /**
+     * Loads a maze file into a Maze, from the cache if the file has not changed since it
+     * was last loaded, or else with the specified loader.
+     *
+     * @param filename path of the maze file
+     * @param fileLoader the loader to load the maze file with if it is not cached, or null to
+     *                   use BinaryFileLoader for binary maze files and FileLoader for any
+     *                   other maze files. Tiled maze files are always paged in with
+     *                   TiledCellStore.
+     * @return a new run through the cached maze layout.
+     * @throws MazeMalformedException if any line in maze file has incorrect format
+     * @throws MazeSizeMissmatchException if size of line or number of lines in maze file does
+     *              not match given length
+     * @throws IllegalArgumentException if the maze file has any invalid characters
+     * @throws FileNotFoundException if the filename cannot be found
+     */
+    public Maze loadMaze(String filename, FileInterface fileLoader)
+            throws MazeMalformedException, MazeSizeMissmatchException,
+            IllegalArgumentException, FileNotFoundException {
+        return new Maze(loadLayout(filename, fileLoader));
+    }
+
+    /**
+     * Loads the layout of a maze file, from the cache if the file has not changed since it
+     * was last loaded, or else with the specified loader.
+     */
+    private MazeLayout loadLayout(String filename, FileInterface fileLoader)
+            throws MazeMalformedException, MazeSizeMissmatchException,
+            IllegalArgumentException, FileNotFoundException {
+        if (TiledCellStore.isTiledFile(filename)) {
+            // Tiled maze files are paged in from the file as they are used, whatever loader
+            // was given, so they are never loaded into memory or cached.
+            return TiledCellStore.loadLayout(filename);
+        }
+        if (fileLoader == null) {
+            fileLoader = BinaryFileLoader.isBinaryFile(filename)
+                    ? new BinaryFileLoader() : new FileLoader();
+        }
+        if (filename == null) {
+            return new MazeLayout(fileLoader.load(null));
+        }
+
+        Path path;
+        String version;
+        try {
+            path = Paths.get(filename).toRealPath();
+            BasicFileAttributes attributes = Files.readAttributes(path,
+                    BasicFileAttributes.class);
+            version = attributes.lastModifiedTime() + "/" + attributes.size();
+        } catch (IOException ex) {
+            throw new FileNotFoundException(filename);
+        }
+
+        synchronized (this.cache) {
+            CachedMaze cached = this.cache.get(path);
+            if (cached != null && cached.version.equals(version)) {
+                this.hits++;
+                return cached.layout;
+            }
+            this.misses++;
+        }
+
+        // Load the file outside the lock, so other files can be loaded at the same time.
+        MazeLayout layout = new MazeLayout(fileLoader.load(filename));
+        synchronized (this.cache) {
+            put(path, new CachedMaze(version, layout));
+        }
+        return layout;
+    }
+
+    /**
+     * Gets the number of loads that used a cached maze.
+     *
+     * @return number of cache hits
+     */
+    public long getHits() {
+        synchronized (this.cache) {
+            return this.hits;
+        }
+    }
+
+    /**
+     * Gets the number of loads that had to load the maze file.
+     *
+     * @return number of cache misses
+     */
+    public long getMisses() {
+        synchronized (this.cache) {
+            return this.misses;
+        }
+    }
+
+    /**
+     * Adds a maze to the cache, replacing any older version of the same file, and evicts
+     * the least recently used mazes until the cache is within its maximum number of cells.
+     * Mazes larger than the whole cache are not cached, but still remove any older version
+     * of the same file, as it is out of date.
+     */
+    private void put(Path path, CachedMaze cached) {
+        if (cached.cells > this.maxCells) {
+            CachedMaze stale = this.cache.remove(path);
+            if (stale != null) {
+                this.cachedCells -= stale.cells;
+            }
+            return;
+        }
+        CachedMaze replaced = this.cache.put(path, cached);
+        if (replaced != null) {
+            this.cachedCells -= replaced.cells;
+        }
+        this.cachedCells += cached.cells;
+
+        Iterator<CachedMaze> eldest = this.cache.values().iterator();
+        while (this.cachedCells > this.maxCells) {
+            this.cachedCells -= eldest.next().cells;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * A maze in the cache, along with the version of the file it was loaded from.
+     */
+    private static class CachedMaze {
+        /** The modification time and size of the file when the maze was loaded */
+        private final String version;
+
+        /** The layout of the maze */
+        private final MazeLayout layout;
+
+        /** The number of cells in the maze */
+        private final long cells;
+
+        /**
+         * Constructor for a cached maze.
+         *
+         * @param version the modification time and size of the file
+         * @param layout the layout of the maze
+         */
+        CachedMaze(String version, MazeLayout layout) {
+            this.version = version;
+            this.layout = layout;
+            this.cells = (long) layout.getMazeX() * layout.getMazeY();
+        }
+    }
+}
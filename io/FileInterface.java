@@ -28,6 +28,11 @@ public interface FileInterface {
      * - Subsequent lines should provide the maze data with specific characters representing the maze elements.
      * </p>
      * <p>
+     * Paths may be written as either ' ' or '.', which mean the same. Loaders that do not keep the characters
+     * of the file, such as {@link BinaryFileLoader} and {@link CachingFileLoader}, return every path as ' ',
+     * so only walls, paths, start and end positions are guaranteed to match the file.
+     * </p>
+     * <p>
      * Exception Handling:
      * - Throws {@link MazeMalformedException} if the maze data doesn't match the given format.
      * - Throws {@link MazeSizeMissmatchException} if the maze data doesn't match the specified dimensions.
@@ -2,16 +2,50 @@ package io;
 
 import exceptions.MazeMalformedException;
 import exceptions.MazeSizeMissmatchException;
+import metrics.Histogram;
+import metrics.Metrics;
 
-import java.io.*;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Paths;
 
 /**
- * A class that reads a file with maze data and loads into a 2D char array
+ * A class that reads a file with maze data and loads into a 2D char array. The file is
+ * read in a single pass through a large buffer, and each character is validated and
+ * copied into the array exactly once.
  */
 public class FileLoader implements FileInterface {
     /** An array of the valid characters in a maze file */
     private static final char[] VALID_LETTERS = {'#', ' ', '.', 'S', 'E'};
 
+    /** The size of the buffer the file is read through, in bytes */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /** The time spent reading each maze file from its channel */
+    private static final Histogram READ_TIME = Metrics.histogram("maze_load_read_seconds",
+            "Time spent reading maze files from disk.");
+
+    /** The time spent parsing each maze file into the 2D char array */
+    private static final Histogram PARSE_TIME = Metrics.histogram("maze_load_parse_seconds",
+            "Time spent parsing and checking the characters of maze files.");
+
+    /** The time spent validating the size, start point and end point of each maze file */
+    private static final Histogram VALIDATE_TIME = Metrics.histogram(
+            "maze_load_validate_seconds",
+            "Time spent validating the size, start point and end point of maze files.");
+
+    /** A lookup table of whether each byte is a valid character in a maze file */
+    private static final boolean[] VALID_BYTES = new boolean[256];
+
+    static {
+        for (char letter : VALID_LETTERS) {
+            VALID_BYTES[letter] = true;
+        }
+    }
+
     /**
      * Gets the size of the maze from the first line of the maze file
      *
@@ -20,12 +54,13 @@ public class FileLoader implements FileInterface {
      * @throws MazeMalformedException if the numbers on first line cannot be converted
      *              to integers, or if either given number is even.
      */
-    private int[] getMazeSize(String line) throws MazeMalformedException {
+    static int[] getMazeSize(String line) throws MazeMalformedException {
         int[] mazeSize = new int[2];
 
         String[] lineElements = line.split(" ");
         if (lineElements.length != 2) {
-            throw new MazeMalformedException();
+            throw new MazeMalformedException("Line 1: expected two sizes but found \""
+                    + line + "\"");
         }
 
         // Convert number in line to an integer to get size of maze.
@@ -33,43 +68,21 @@ public class FileLoader implements FileInterface {
             mazeSize[0] = Integer.parseInt(lineElements[0]);
             mazeSize[1] = Integer.parseInt(lineElements[1]);
         } catch (NumberFormatException ex) {
-            throw new MazeMalformedException();
+            throw new MazeMalformedException("Line 1: sizes are not numbers in \""
+                    + line + "\"");
         }
 
-        // Check if maze x and y lengths are odd numbers.
+        // Check if maze x and y lengths are positive odd numbers.
         for (int num = 0; num < 2; num++) {
-            if (mazeSize[num] % 2 == 0) {
-                throw new MazeMalformedException();
+            if (mazeSize[num] % 2 == 0 || mazeSize[num] < 1) {
+                throw new MazeMalformedException("Line 1: size " + mazeSize[num]
+                        + " is not a positive odd number");
             }
         }
 
         return mazeSize;
     }
 
-    /**
-     * Checks if all the characters in the specified line are valid.
-     *
-     * @param line a line from the maze file to validate
-     * @throws IllegalArgumentException if the line has an invalid character
-     */
-    private void checkLine(String line) throws IllegalArgumentException {
-        // Iterate through each character in the line.
-        int lineLength = line.length();
-        for (int i = 0; i < lineLength; i++) {
-            // Check if character is in VALID_LETTERS
-            boolean valid = false;
-            for (int j = 0; j < 5; j++) {
-                if (line.charAt(i) == VALID_LETTERS[j]) {
-                    valid = true;
-                    break;
-                }
-            }
-            if (!valid) {
-                throw new IllegalArgumentException();
-            }
-        }
-    }
-
     /**
      * Loads a file with maze data and converts it to a 2D char array.
      *
@@ -91,55 +104,213 @@ public class FileLoader implements FileInterface {
             return mazeData;
         }
 
-        int mazeX = 0;
-        int mazeY = 0;
-        char[][] mazeData = new char[0][];
-
-        try (FileReader reader = new FileReader(filename)) {
-            BufferedReader bufferedReader = new BufferedReader(reader);
-            String line;
-            int numOfStart = 0;
-            int numOfEnd = 0;
-
-            // Iterate through each line in the file.
-            for (int lineNumber = 0; (line = bufferedReader.readLine()) != null; lineNumber++) {
-                if (lineNumber == 0) {
-                    // Get size of maze from first line
-                    int[] mazeSize = getMazeSize(line);
-                    mazeY = mazeSize[0];
-                    mazeX = mazeSize[1];
-                    mazeData = new char[mazeY][mazeX];
-
-                } else {
-                    // Check if size of line matches the given x and y lengths from line 1
-                    int length = line.length();
-                    if (length != mazeX || lineNumber > mazeY) {
-                        throw new MazeSizeMissmatchException();
-                    }
+        try (FileChannel channel = FileChannel.open(Paths.get(filename))) {
+            return load(channel);
+        } catch (IOException ex) {
+            throw new FileNotFoundException(filename);
+        }
+    }
+
+    /**
+     * Reads maze data in the same format as a maze file from a channel and converts it to a
+     * 2D char array.
+     *
+     * @param channel the channel to read the maze data from
+     * @return a 2D array with all data from the channel.
+     * @throws MazeMalformedException if any line in maze data has incorrect format
+     * @throws MazeSizeMissmatchException if size of line or number of lines in maze data does
+     *              not match given length
+     * @throws IllegalArgumentException if the maze data has any invalid characters
+     * @throws IOException if the channel cannot be read
+     */
+    public char[][] load(ReadableByteChannel channel) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, IOException {
+        MazeReader reader = new MazeReader();
+
+        // Read the file through the buffer, handling each byte once. Small files only need a
+        // buffer as big as the file.
+        int bufferSize = BUFFER_SIZE;
+        if (channel instanceof FileChannel file) {
+            bufferSize = (int) Math.max(1, Math.min(BUFFER_SIZE, file.size()));
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        byte[] bytes = buffer.array();
+        // Reading and parsing are interleaved a buffer at a time, so when metrics are enabled
+        // the time spent on each is added up separately over the whole file.
+        long readNanos = 0;
+        long parseNanos = 0;
+        long time = Metrics.ENABLED ? System.nanoTime() : 0;
+        int read;
+        while ((read = channel.read(buffer)) >= 0) {
+            if (Metrics.ENABLED) {
+                long now = System.nanoTime();
+                readNanos += now - time;
+                time = now;
+            }
+            for (int i = 0; i < read; i++) {
+                reader.readByte(bytes[i]);
+            }
+            buffer.clear();
+            if (Metrics.ENABLED) {
+                long now = System.nanoTime();
+                parseNanos += now - time;
+                time = now;
+            }
+        }
+        if (!Metrics.ENABLED) {
+            return reader.finish();
+        }
+
+        long validateStart = System.nanoTime();
+        char[][] mazeData = reader.finish();
+        VALIDATE_TIME.recordSince(validateStart);
+        READ_TIME.record(readNanos + validateStart - time);
+        PARSE_TIME.record(parseNanos);
+        return mazeData;
+    }
 
-                    // Iterate through each char in the line and put it in mazeData.
-                    for (int i = 0; i < length; i++) {
-                        // Check if line has valid characters
-                        checkLine(line);
-                        if (line.charAt(i) == 'S') {
-                            numOfStart++;
-                        } else if (line.charAt(i) == 'E') {
-                            numOfEnd++;
-                        }
-                        mazeData[lineNumber - 1][i] = line.charAt(i);
+    /**
+     * A class that holds the state of reading a single maze file, so that a FileLoader
+     * can be used to load several files at once.
+     */
+    private static class MazeReader {
+        /** The length of the maze in y-axis, given on the first line */
+        private int mazeY;
+
+        /** The length of the maze in x-axis, given on the first line */
+        private int mazeX;
+
+        /** The 2D array the maze data is loaded into, or null until line 1 is read */
+        private char[][] mazeData;
+
+        /** The first line of the file, until it has been read */
+        private StringBuilder header = new StringBuilder();
+
+        /** The line number in the file of the line being read, starting at 1 */
+        private int lineNumber = 1;
+
+        /** The number of characters read so far on the line being read */
+        private int column;
+
+        /** The column of the first invalid character on the line being read, or -1 if none */
+        private int invalidColumn = -1;
+
+        /** A boolean indicating whether any character has been read on the current line */
+        private boolean lineStarted;
+
+        /** A boolean indicating whether the last character read was a carriage return */
+        private boolean afterCarriageReturn;
+
+        /** The number of start points found in the file */
+        private int numOfStart;
+
+        /** The number of end points found in the file */
+        private int numOfEnd;
+
+        /**
+         * Handles a single byte of the file, either ending the current line, adding it to
+         * the first line, or validating the character and putting it in mazeData.
+         */
+        void readByte(byte element) throws MazeMalformedException,
+                MazeSizeMissmatchException, IllegalArgumentException {
+            // Treat "\r\n", "\r" and "\n" as line endings, like BufferedReader.readLine().
+            if (element == '\n' && this.afterCarriageReturn) {
+                this.afterCarriageReturn = false;
+                return;
+            }
+            this.afterCarriageReturn = element == '\r';
+            if (element == '\n' || element == '\r') {
+                endLine();
+                return;
+            }
+            this.lineStarted = true;
+
+            if (this.lineNumber == 1) {
+                this.header.append((char) (element & 0xFF));
+                return;
+            }
+
+            // Characters past the given size are only counted, so the length of the line
+            // can be checked at the end of the line.
+            if (this.column < this.mazeX && this.lineNumber - 1 <= this.mazeY) {
+                if (!VALID_BYTES[element & 0xFF]) {
+                    if (this.invalidColumn < 0) {
+                        this.invalidColumn = this.column;
                     }
+                } else if (element == 'S') {
+                    this.numOfStart++;
+                } else if (element == 'E') {
+                    this.numOfEnd++;
                 }
+                this.mazeData[this.lineNumber - 2][this.column] = (char) (element & 0xFF);
             }
-            bufferedReader.close();
-            reader.close();
-            // Check if number of 'S' and 'E' is written only once in the file.
-            if (numOfStart != 1 || numOfEnd != 1) {
-                throw new MazeMalformedException();
+            this.column++;
+        }
+
+        /**
+         * Checks the line that has just been read, and moves on to the next line.
+         */
+        private void endLine() throws MazeMalformedException, MazeSizeMissmatchException,
+                IllegalArgumentException {
+            if (this.lineNumber == 1) {
+                // Get size of maze from first line
+                int[] mazeSize = getMazeSize(this.header.toString());
+                this.mazeY = mazeSize[0];
+                this.mazeX = mazeSize[1];
+                this.mazeData = new char[this.mazeY][this.mazeX];
+                this.header = null;
+
+            } else {
+                // Check if size of line matches the given x and y lengths from line 1
+                if (this.lineNumber - 1 > this.mazeY) {
+                    throw new MazeSizeMissmatchException("Line " + this.lineNumber
+                            + ": expected only " + this.mazeY + " lines of maze data");
+                }
+                if (this.column != this.mazeX) {
+                    throw new MazeSizeMissmatchException("Line " + this.lineNumber
+                            + ": expected " + this.mazeX + " characters but found "
+                            + this.column);
+                }
+
+                // Check if line has valid characters
+                if (this.invalidColumn >= 0) {
+                    throw new IllegalArgumentException("Line " + this.lineNumber
+                            + ", column " + (this.invalidColumn + 1) + ": invalid character '"
+                            + this.mazeData[this.lineNumber - 2][this.invalidColumn] + "'");
+                }
             }
-        } catch (IOException ex) {
-            throw new FileNotFoundException();
+
+            this.lineNumber++;
+            this.column = 0;
+            this.invalidColumn = -1;
+            this.lineStarted = false;
         }
 
-        return mazeData;
+        /**
+         * Checks the end of the file, and gets the maze data that has been read.
+         */
+        char[][] finish() throws MazeMalformedException, MazeSizeMissmatchException,
+                IllegalArgumentException {
+            if (this.lineStarted) {
+                endLine();
+            }
+
+            // Check if the file had a first line, and as many lines as given on it.
+            if (this.mazeData == null) {
+                throw new MazeMalformedException("Line 1: missing maze size");
+            }
+            int rows = this.lineNumber - 2;
+            if (rows != this.mazeY) {
+                throw new MazeSizeMissmatchException("Expected " + this.mazeY
+                        + " lines of maze data but found " + rows);
+            }
+
+            // Check if number of 'S' and 'E' is written only once in the file.
+            if (this.numOfStart != 1 || this.numOfEnd != 1) {
+                throw new MazeMalformedException("Expected one 'S' and one 'E' but found "
+                        + this.numOfStart + " and " + this.numOfEnd);
+            }
+            return this.mazeData;
+        }
     }
 }
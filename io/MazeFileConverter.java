@@ -0,0 +1,178 @@
+package io;
+
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A class that writes mazes in the text and binary maze formats, and converts maze files
+ * from one format to the other.
+ * <p>
+ * Usage: {@code java io.MazeFileConverter {input file} {output file}}, which writes a text
+ * maze file as a binary maze file, or a binary maze file as a text maze file. If the output
+ * file ends with TiledCellStore.EXTENSION, the text maze file is instead converted one line
+ * at a time into a tiled maze file, so mazes larger than memory can be converted.
+ * </p>
+ */
+public class MazeFileConverter {
+    /** The size of the buffer the body of a binary maze file is written through */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Converts the maze file given as the first argument into the other format, and writes
+     * it to the file given as the second argument.
+     *
+     * @param args the input file and the output file
+     * @throws IOException if either file cannot be read or written
+     * @throws MazeMalformedException if format of maze does not match required format.
+     * @throws MazeSizeMissmatchException if size of maze does not match the given size.
+     * @throws IllegalArgumentException if the number of arguments is wrong, or maze
+     *         contains invalid characters.
+     */
+    public static void main(String[] args) throws IOException, MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException();
+        }
+
+        if (args[1].endsWith(TiledCellStore.EXTENSION)) {
+            TiledCellStore.write(args[0], args[1], TiledCellStore.DEFAULT_TILE_SIZE);
+        } else if (BinaryFileLoader.isBinaryFile(args[0])) {
+            writeText(new BinaryFileLoader().load(args[0]), args[1]);
+        } else {
+            writeBinary(new FileLoader().load(args[0]), args[1]);
+        }
+    }
+
+    /**
+     * Writes a maze to a file in the text format read by FileLoader.
+     *
+     * @param mazeData a 2D array of the maze characters
+     * @param filename the path of the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeText(char[][] mazeData, String filename) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(filename),
+                StandardCharsets.US_ASCII)) {
+            writer.write(mazeData.length + " " + mazeData[0].length);
+            for (char[] row : mazeData) {
+                writer.newLine();
+                writer.write(row);
+            }
+        }
+    }
+
+    /**
+     * Writes a maze to a file in the binary format read by BinaryFileLoader. Both ' ' and
+     * '.' are written as a path, so they are read back as ' '.
+     *
+     * @param mazeData a 2D array of the maze characters
+     * @param filename the path of the file to write
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the maze contains invalid characters
+     */
+    public static void writeBinary(char[][] mazeData, String filename) throws IOException,
+            IllegalArgumentException {
+        int mazeY = mazeData.length;
+        int mazeX = mazeData[0].length;
+        int[] points = new int[4];
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filename),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Write the body after the header first, so its checksum is known when the
+            // header is written.
+            channel.position(BinaryFileLoader.HEADER_SIZE);
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            CRC32 crc = new CRC32();
+            int bits = 0;
+            int cellsInByte = 0;
+            for (int y = 0; y < mazeY; y++) {
+                for (int x = 0; x < mazeX; x++) {
+                    int code = getCode(mazeData[y][x], x, y, points);
+                    bits |= code << (cellsInByte * BinaryFileLoader.BITS_PER_CELL);
+                    if (++cellsInByte == BinaryFileLoader.CELLS_PER_BYTE) {
+                        putByte(channel, buffer, crc, bits);
+                        bits = 0;
+                        cellsInByte = 0;
+                    }
+                }
+            }
+            if (cellsInByte > 0) {
+                putByte(channel, buffer, crc, bits);
+            }
+            writeBuffer(channel, buffer, crc);
+
+            ByteBuffer header = ByteBuffer.allocate(BinaryFileLoader.HEADER_SIZE);
+            header.putInt(BinaryFileLoader.MAGIC).putInt(BinaryFileLoader.VERSION)
+                    .putInt(mazeY).putInt(mazeX)
+                    .putInt(points[0]).putInt(points[1]).putInt(points[2]).putInt(points[3])
+                    .putInt((int) crc.getValue());
+            header.flip();
+            channel.position(0);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        }
+    }
+
+    /**
+     * Gets the 2-bit code of a maze character, and records the coordinates of the start
+     * and end points in points.
+     */
+    private static int getCode(char element, int x, int y, int[] points)
+            throws IllegalArgumentException {
+        switch (element) {
+            case '#' -> {
+                return BinaryFileLoader.WALL_CODE;
+            }
+            case ' ', '.' -> {
+                return BinaryFileLoader.PATH_CODE;
+            }
+            case 'S' -> {
+                points[0] = x;
+                points[1] = y;
+                return BinaryFileLoader.START_CODE;
+            }
+            case 'E' -> {
+                points[2] = x;
+                points[3] = y;
+                return BinaryFileLoader.END_CODE;
+            }
+            default -> throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Adds a byte of the body to the buffer, writing the buffer out if it is full.
+     */
+    private static void putByte(FileChannel channel, ByteBuffer buffer, CRC32 crc, int bits)
+            throws IOException {
+        if (!buffer.hasRemaining()) {
+            writeBuffer(channel, buffer, crc);
+        }
+        buffer.put((byte) bits);
+    }
+
+    /**
+     * Writes the buffer to the channel and adds it to the checksum.
+     */
+    private static void writeBuffer(FileChannel channel, ByteBuffer buffer, CRC32 crc)
+            throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
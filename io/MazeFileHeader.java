@@ -0,0 +1,39 @@
+package io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+
+/**
+ * A class with the header reading shared by the binary and tiled maze formats, which both
+ * start with a big-endian magic number so their files can be told apart from each other and
+ * from text maze files.
+ */
+final class MazeFileHeader {
+    private MazeFileHeader() {
+    }
+
+    /**
+     * Determines whether the specified file starts with the specified magic number.
+     *
+     * @param filename the path to the file, which may be null
+     * @param magic the magic number, as a big-endian integer
+     * @return true if the file starts with the magic number, else return false.
+     */
+    static boolean hasMagic(String filename, int magic) {
+        if (filename == null) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(filename))) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // A read may return fewer bytes than asked for, so keep reading until the
+                // magic number is complete or the file ends.
+            }
+            return !header.hasRemaining() && header.getInt(0) == magic;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package io;
+
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+import maze.CellStore;
+import maze.Maze;
+import maze.MazeLayout;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A class that stores the cells of a maze in a tiled maze file, for mazes too large to hold
+ * in memory. The maze is split into square tiles of tileSize by tileSize cells, and each tile
+ * is stored in a contiguous block of the file so that the cells near each other in the maze
+ * are near each other on disk. The file is memory-mapped, and tiles are copied in from the
+ * mapping the first time they are used and kept in a least recently used cache of at most a
+ * maximum number of bytes.
+ * <p>
+ * A tiled maze file is made of a header of nine big-endian integers:
+ * the magic number, the format version, the length of the maze in y-axis and x-axis,
+ * the x and y coordinates of the start point, the x and y coordinates of the end point,
+ * and the tile size, which is a power of two.
+ * The tiles follow the header in row-major order, with tiles past the edge of the maze
+ * padded with walls. Each tile holds its cells in row-major order with 2 bits per cell and
+ * four cells per byte, starting from the lowest bits of each byte, and each cell is
+ * Maze.WALL, Maze.PATH or Maze.END_POINT.
+ * </p>
+ */
+public class TiledCellStore implements CellStore {
+    /** The magic number at the start of every tiled maze file, which is "MAZT" in ASCII */
+    public static final int MAGIC = 0x4D415A54;
+
+    /** The version of the tiled maze format */
+    public static final int VERSION = 1;
+
+    /** The size of the header in bytes */
+    public static final int HEADER_SIZE = 9 * Integer.BYTES;
+
+    /** The file extension MazeFileConverter writes tiled maze files for */
+    public static final String EXTENSION = ".tiles";
+
+    /** The tile size used when none is specified, in cells per side */
+    public static final int DEFAULT_TILE_SIZE = 512;
+
+    /** The most bytes of tiles kept in memory when no maximum is specified */
+    public static final long DEFAULT_MAX_RESIDENT_BYTES = 256L << 20;
+
+    /** The number of cells packed into each byte of a tile */
+    private static final int CELLS_PER_BYTE = 4;
+
+    /** The most bytes of the file mapped by a single buffer */
+    private static final long MAX_REGION_SIZE = 1L << 30;
+
+    /** The length of the maze in y-axis */
+    private final int mazeY;
+
+    /** The length of the maze in x-axis */
+    private final int mazeX;
+
+    /** The x and y coordinates of the start point and end point, in the order of the header */
+    private final int[] endPoints = new int[4];
+
+    /** The number of bits in the tile size, which is the tile size as a power of two */
+    private final int tileShift;
+
+    /** The number of tiles in each row of tiles */
+    private final int tilesX;
+
+    /** The number of bytes in each tile */
+    private final int tileBytes;
+
+    /** The number of tiles mapped by each buffer */
+    private final int tilesPerRegion;
+
+    /** The buffers mapping the tiles of the file, in order */
+    private final MappedByteBuffer[] regions;
+
+    /** The tiles in memory, keyed by their index, from least to most recently used */
+    private final LinkedHashMap<Integer, byte[]> resident;
+
+    /** The tile used most recently, checked before the cache as cells are often used in runs */
+    private volatile Tile lastTile;
+
+    /** The number of times a tile has been copied in from the file */
+    private long pageIns;
+
+    /**
+     * Constructor which maps a tiled maze file and checks its header. No tiles are copied
+     * into memory until their cells are used.
+     *
+     * @param filename the path to the tiled maze file
+     * @param maxResidentBytes the most bytes of tiles to keep in memory, which is always
+     *                         enough for at least one tile
+     * @throws MazeMalformedException if the header is wrong
+     * @throws MazeSizeMissmatchException if the size of the file does not match the size
+     *              given in the header
+     * @throws IllegalArgumentException if the file is not a tiled maze file
+     * @throws FileNotFoundException if the filename cannot be found
+     */
+    public TiledCellStore(String filename, long maxResidentBytes) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename))) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new MazeMalformedException("File is shorter than the header");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a tiled maze file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new MazeMalformedException("Unsupported tiled maze version " + version);
+            }
+            this.mazeY = header.getInt();
+            this.mazeX = header.getInt();
+            for (int i = 0; i < this.endPoints.length; i++) {
+                this.endPoints[i] = header.getInt();
+            }
+            int tileSize = header.getInt();
+            if (this.mazeY < 1 || this.mazeX < 1 || tileSize < 2
+                    || Integer.bitCount(tileSize) != 1 || tileSize > 1 << 15) {
+                throw new MazeMalformedException("Invalid sizes in header");
+            }
+
+            this.tileShift = Integer.numberOfTrailingZeros(tileSize);
+            this.tilesX = getTileCount(this.mazeX, tileSize);
+            this.tileBytes = tileSize * tileSize / CELLS_PER_BYTE;
+            long tiles = (long) this.tilesX * getTileCount(this.mazeY, tileSize);
+            if (tiles > Integer.MAX_VALUE) {
+                throw new MazeMalformedException("Too many tiles for the tile size");
+            }
+            if (channel.size() != HEADER_SIZE + tiles * this.tileBytes) {
+                throw new MazeSizeMissmatchException("Expected " + tiles + " tiles of "
+                        + this.tileBytes + " bytes after the header");
+            }
+
+            // Map the whole file up front in regions of whole tiles. The mappings stay valid
+            // after the channel is closed, and only use memory as their pages are read.
+            this.tilesPerRegion = (int) Math.max(1, MAX_REGION_SIZE / this.tileBytes);
+            this.regions = new MappedByteBuffer[(int) ((tiles + this.tilesPerRegion - 1)
+                    / this.tilesPerRegion)];
+            for (int i = 0; i < this.regions.length; i++) {
+                long first = (long) i * this.tilesPerRegion;
+                long count = Math.min(this.tilesPerRegion, tiles - first);
+                this.regions[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + first * this.tileBytes, count * this.tileBytes);
+            }
+        } catch (IOException ex) {
+            throw new FileNotFoundException(filename);
+        }
+
+        int maxTiles = (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                maxResidentBytes / this.tileBytes));
+        this.resident = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+                return size() > maxTiles;
+            }
+        };
+        if (!isOpen(this.endPoints[0], this.endPoints[1])
+                || !isOpen(this.endPoints[2], this.endPoints[3])) {
+            throw new MazeMalformedException("Start or end point is outside the maze");
+        }
+    }
+
+    /**
+     * Determines whether the specified file starts with the magic number of a tiled maze
+     * file.
+     *
+     * @param filename the path to the file, which may be null
+     * @return true if the file is a tiled maze file, else return false.
+     */
+    public static boolean isTiledFile(String filename) {
+        return MazeFileHeader.hasMagic(filename, MAGIC);
+    }
+
+    /**
+     * Opens a tiled maze file as a maze layout, keeping at most DEFAULT_MAX_RESIDENT_BYTES
+     * of its tiles in memory.
+     *
+     * @param filename the path to the tiled maze file
+     * @return the layout of the maze, with its cells paged in from the file as they are used
+     * @throws MazeMalformedException if the header is wrong
+     * @throws MazeSizeMissmatchException if the size of the file does not match the size
+     *              given in the header
+     * @throws IllegalArgumentException if the file is not a tiled maze file
+     * @throws FileNotFoundException if the filename cannot be found
+     */
+    public static MazeLayout loadLayout(String filename) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        TiledCellStore store = new TiledCellStore(filename, DEFAULT_MAX_RESIDENT_BYTES);
+        return new MazeLayout(store, store.endPoints[0], store.endPoints[1],
+                store.endPoints[2], store.endPoints[3]);
+    }
+
+    /**
+     * Converts a maze file in the text format read by FileLoader into a tiled maze file,
+     * reading one line at a time so mazes larger than memory can be converted. Only one row
+     * of tiles is held in memory at once.
+     *
+     * @param textFile the path of the text maze file to read
+     * @param tiledFile the path of the tiled maze file to write
+     * @param tileSize the number of cells on each side of a tile, which is a power of two
+     * @throws IOException if either file cannot be read or written
+     * @throws MazeMalformedException if format of maze does not match required format.
+     * @throws MazeSizeMissmatchException if size of maze does not match the given size.
+     * @throws IllegalArgumentException if the maze contains invalid characters, or the tile
+     *         size is not a power of two
+     */
+    public static void write(String textFile, String tiledFile, int tileSize)
+            throws IOException, MazeMalformedException, MazeSizeMissmatchException,
+            IllegalArgumentException {
+        if (tileSize < 2 || Integer.bitCount(tileSize) != 1 || tileSize > 1 << 15) {
+            throw new IllegalArgumentException("Tile size must be a power of two");
+        }
+        int shift = Integer.numberOfTrailingZeros(tileSize);
+        int mask = tileSize - 1;
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(textFile),
+                StandardCharsets.ISO_8859_1);
+                FileChannel channel = FileChannel.open(Paths.get(tiledFile),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            String line = reader.readLine();
+            if (line == null) {
+                throw new MazeMalformedException("Line 1: missing maze size");
+            }
+            int[] mazeSize = FileLoader.getMazeSize(line);
+            int mazeY = mazeSize[0];
+            int mazeX = mazeSize[1];
+            int tileBytes = tileSize * tileSize / CELLS_PER_BYTE;
+            ByteBuffer band = ByteBuffer.allocate(getTileCount(mazeX, tileSize) * tileBytes);
+            byte[] packed = band.array();
+
+            // Pack each row into its row of tiles, and write the row of tiles once it is full.
+            int[] endPoints = new int[4];
+            int numOfStart = 0;
+            int numOfEnd = 0;
+            channel.position(HEADER_SIZE);
+            for (int y = 0; y < mazeY; y++) {
+                int lineNumber = y + 2;
+                line = reader.readLine();
+                if (line == null) {
+                    throw new MazeSizeMissmatchException("Expected " + mazeY
+                            + " lines of maze data but found " + y);
+                }
+                if (line.length() != mazeX) {
+                    throw new MazeSizeMissmatchException("Line " + lineNumber + ": expected "
+                            + mazeX + " characters but found " + line.length());
+                }
+                for (int x = 0; x < mazeX; x++) {
+                    byte code;
+                    switch (line.charAt(x)) {
+                        case '#' -> code = Maze.WALL;
+                        case ' ', '.' -> code = Maze.PATH;
+                        case 'S' -> {
+                            code = Maze.PATH;
+                            numOfStart++;
+                            endPoints[0] = x;
+                            endPoints[1] = y;
+                        }
+                        case 'E' -> {
+                            code = Maze.END_POINT;
+                            numOfEnd++;
+                            endPoints[2] = x;
+                            endPoints[3] = y;
+                        }
+                        default -> throw new IllegalArgumentException("Line " + lineNumber
+                                + ", column " + (x + 1) + ": invalid character '"
+                                + line.charAt(x) + "'");
+                    }
+                    int offset = ((y & mask) << shift) | (x & mask);
+                    packed[(x >>> shift) * tileBytes + offset / CELLS_PER_BYTE] |=
+                            (byte) (code << (offset % CELLS_PER_BYTE * 2));
+                }
+                if ((y & mask) == mask || y == mazeY - 1) {
+                    band.clear();
+                    while (band.hasRemaining()) {
+                        channel.write(band);
+                    }
+                    Arrays.fill(packed, (byte) 0);
+                }
+            }
+
+            line = reader.readLine();
+            if (line != null) {
+                throw new MazeSizeMissmatchException("Line " + (mazeY + 2)
+                        + ": expected only " + mazeY + " lines of maze data");
+            }
+            if (numOfStart != 1 || numOfEnd != 1) {
+                throw new MazeMalformedException("Expected one 'S' and one 'E' but found "
+                        + numOfStart + " and " + numOfEnd);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(mazeY).putInt(mazeX);
+            for (int point : endPoints) {
+                header.putInt(point);
+            }
+            header.putInt(tileSize).flip();
+            channel.write(header, 0);
+        }
+    }
+
+    @Override
+    public int getMazeX() {
+        return this.mazeX;
+    }
+
+    @Override
+    public int getMazeY() {
+        return this.mazeY;
+    }
+
+    @Override
+    public byte getCell(long cell) {
+        return getCell((int) (cell % this.mazeX), (int) (cell / this.mazeX));
+    }
+
+    @Override
+    public byte getCell(int x, int y) {
+        int mask = (1 << this.tileShift) - 1;
+        byte[] tile = getTile((y >>> this.tileShift) * this.tilesX + (x >>> this.tileShift));
+        int offset = ((y & mask) << this.tileShift) | (x & mask);
+        return (byte) ((tile[offset / CELLS_PER_BYTE] >>> (offset % CELLS_PER_BYTE * 2)) & 3);
+    }
+
+    /**
+     * Gets the number of times a tile has been copied in from the file, including tiles
+     * copied in again after being evicted from the cache.
+     *
+     * @return number of tiles paged in
+     */
+    public long getPageIns() {
+        synchronized (this.resident) {
+            return this.pageIns;
+        }
+    }
+
+    /**
+     * Gets a tile, from the cache if it is in memory, or else by copying it in from the
+     * mapped file and evicting the least recently used tile if the cache is full.
+     */
+    private byte[] getTile(int index) {
+        Tile last = this.lastTile;
+        if (last != null && last.index == index) {
+            return last.cells;
+        }
+
+        byte[] cells;
+        synchronized (this.resident) {
+            cells = this.resident.get(index);
+            if (cells == null) {
+                cells = new byte[this.tileBytes];
+                this.regions[index / this.tilesPerRegion].get(
+                        (index % this.tilesPerRegion) * this.tileBytes, cells);
+                this.resident.put(index, cells);
+                this.pageIns++;
+            }
+        }
+        this.lastTile = new Tile(index, cells);
+        return cells;
+    }
+
+    /**
+     * Determines whether a coordinate is inside the maze and is not a wall.
+     */
+    private boolean isOpen(int x, int y) {
+        return x >= 0 && x < this.mazeX && y >= 0 && y < this.mazeY
+                && getCell(x, y) != Maze.WALL;
+    }
+
+    /**
+     * Gets the number of tiles needed to cover a length of the maze.
+     */
+    private static int getTileCount(int length, int tileSize) {
+        return (length + tileSize - 1) / tileSize;
+    }
+
+    /**
+     * A tile in memory, along with its index.
+     */
+    private static class Tile {
+        /** The index of the tile */
+        private final int index;
+
+        /** The packed cells of the tile */
+        private final byte[] cells;
+
+        /**
+         * Constructor for a tile in memory.
+         *
+         * @param index the index of the tile
+         * @param cells the packed cells of the tile
+         */
+        Tile(int index, byte[] cells) {
+            this.index = index;
+            this.cells = cells;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package benchmark;
+
+import generator.KruskalGenerator;
+import maze.AStarSolver;
+import maze.BreadthFirstSolver;
+import maze.CorridorGraph;
+import maze.CorridorSolver;
+import maze.Maze;
+import maze.SolveResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of solving perfect mazes on their corridor graph, compared with searching
+ * every cell with the breadth-first and A* solvers.
+ * <p>
+ * Usage: {@code gradle :jmh:jmh -Pjmh='CorridorGraphBenchmarks'}, which generates a perfect
+ * maze with Kruskal's algorithm for each side length. The time to build the corridor graph
+ * is measured separately from solving on it, as the graph is built once for each maze
+ * layout and shared by every later solve. The side lengths are 1001 and 4001 unless chosen
+ * with {@code -p size=...}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class CorridorGraphBenchmarks {
+    /** The seed for the generated mazes, so every run uses the same mazes */
+    private static final long SEED = 42;
+
+    /**
+     * The perfect maze that is solved, generated once for each side length.
+     */
+    @State(Scope.Benchmark)
+    public static class Input {
+        /** The side length of the generated maze */
+        @Param({"1001", "4001"})
+        public int size;
+
+        /** The maze that is solved */
+        Maze maze;
+
+        /**
+         * Generates the maze, and checks the corridor solver finds the same path as the
+         * breadth-first solver.
+         *
+         * @throws IllegalStateException if the paths differ
+         */
+        @Setup(Level.Trial)
+        public void setup() {
+            this.maze = new Maze(new KruskalGenerator().generate(this.size, this.size, SEED));
+            SolveResult expected = new BreadthFirstSolver().solve(this.maze);
+            if (!Arrays.equals(new CorridorSolver().solve(this.maze).getPath(),
+                    expected.getPath())) {
+                throw new IllegalStateException("Corridor path differs for size " + this.size);
+            }
+            CorridorGraph graph = this.maze.getCorridorGraph();
+            System.out.printf("# %d: %d cells on the path, %d nodes, %d edges%n", this.size,
+                    expected.getPath().length, graph.getNodeCount(), graph.getEdgeCount());
+        }
+    }
+
+    /**
+     * Benchmarks the breadth-first solver.
+     *
+     * @param input the maze to solve
+     * @return the result of the solve
+     */
+    @Benchmark
+    public SolveResult bfs(Input input) {
+        return new BreadthFirstSolver().solve(input.maze);
+    }
+
+    /**
+     * Benchmarks the A* solver.
+     *
+     * @param input the maze to solve
+     * @return the result of the solve
+     */
+    @Benchmark
+    public SolveResult astar(Input input) {
+        return new AStarSolver().solve(input.maze);
+    }
+
+    /**
+     * Benchmarks building the corridor graph.
+     *
+     * @param input the maze to build the graph of
+     * @return the corridor graph
+     */
+    @Benchmark
+    public CorridorGraph graph(Input input) {
+        return new CorridorGraph(input.maze.getLayout());
+    }
+
+    /**
+     * Benchmarks the corridor solver, on the graph already built for the maze.
+     *
+     * @param input the maze to solve
+     * @return the result of the solve
+     */
+    @Benchmark
+    public SolveResult corridor(Input input) {
+        return new CorridorSolver().solve(input.maze);
+    }
+}
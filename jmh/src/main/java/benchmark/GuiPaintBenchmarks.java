@@ -0,0 +1,128 @@
+package benchmark;
+
+import display.GuiDrawMaze;
+import generator.KruskalGenerator;
+import maze.Maze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.JPanel;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the frame time of the GUI, painting the maze panel into an offscreen
+ * image the size of the window without a display.
+ * <p>
+ * Usage: {@code gradle :jmh:jmh -Pjmh='GuiPaintBenchmarks'}, which generates a maze with
+ * Kruskal's algorithm for each side length and paints it as it is first shown, and zoomed
+ * out to fit the whole maze. The side lengths are 101 and 2001 unless chosen with
+ * {@code -p size=...}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GuiPaintBenchmarks {
+    /** The width and height of the window in pixels, as the GUI first opens it */
+    private static final int FRAME_SIZE = 730;
+
+    /** The number of zoom steps that is enough to zoom out to the whole maze */
+    private static final int ZOOM_OUT_STEPS = 64;
+
+    /** The seed for the generated mazes, so every run uses the same mazes */
+    private static final long SEED = 42;
+
+    /**
+     * The maze panel and the image it is painted into.
+     */
+    @State(Scope.Thread)
+    public static class Panel {
+        /** The side length of the generated maze */
+        @Param({"101", "2001"})
+        public int size;
+
+        /** Whether the viewport is zoomed out to fit the whole maze */
+        @Param({"false", "true"})
+        public boolean fit;
+
+        /** The panel that draws the maze */
+        GuiDrawMaze panel;
+
+        /** The image the size of the window that the panel is painted into */
+        BufferedImage image;
+
+        /** The graphics context of the image */
+        Graphics2D graphics;
+
+        /**
+         * Generates the maze, lays out the panel in a window-sized component, and prints
+         * how many pixels the first paint drew in a colour other than the background.
+         */
+        @Setup(Level.Trial)
+        public void setup() {
+            Maze maze = new Maze(new KruskalGenerator().generate(this.size, this.size, SEED));
+            JPanel frame = new JPanel();
+            frame.setSize(FRAME_SIZE, FRAME_SIZE);
+            this.panel = new GuiDrawMaze(maze, frame);
+            this.panel.setSize(FRAME_SIZE, FRAME_SIZE);
+            this.image = new BufferedImage(FRAME_SIZE, FRAME_SIZE, BufferedImage.TYPE_INT_RGB);
+            this.graphics = this.image.createGraphics();
+
+            // The first paint lays out the viewport, which zooming needs.
+            this.panel.paint(this.graphics);
+            if (this.fit) {
+                for (int i = 0; i < ZOOM_OUT_STEPS; i++) {
+                    this.panel.zoomOut();
+                }
+                this.panel.paint(this.graphics);
+            }
+
+            int background = this.panel.getBackground().getRGB();
+            long drawn = 0;
+            for (int y = 0; y < FRAME_SIZE; y++) {
+                for (int x = 0; x < FRAME_SIZE; x++) {
+                    if (this.image.getRGB(x, y) != background) {
+                        drawn++;
+                    }
+                }
+            }
+            System.out.printf("# %d pixels drawn%n", drawn);
+        }
+
+        /**
+         * Releases the graphics context of the image.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            this.graphics.dispose();
+        }
+    }
+
+    /**
+     * Benchmarks painting the whole panel, as for each frame when the viewport moves.
+     *
+     * @param panel the panel to paint
+     * @return the image painted into
+     */
+    @Benchmark
+    public BufferedImage paint(Panel panel) {
+        panel.panel.paint(panel.graphics);
+        return panel.image;
+    }
+}
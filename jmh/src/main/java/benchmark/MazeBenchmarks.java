@@ -0,0 +1,280 @@
+package benchmark;
+
+import display.TextDisplay;
+import generator.EllerGenerator;
+import io.BinaryFileLoader;
+import io.FileLoader;
+import io.MazeFileConverter;
+import maze.AutoNavigator;
+import maze.Maze;
+import maze.SolverEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for loading, constructing, solving and rendering mazes.
+ * <p>
+ * Usage: {@code gradle :jmh:jmh -Pjmh='MazeBenchmarks -prof gc'}, which runs every
+ * benchmark on Small.txt, Medium.txt, Large.txt and generated mazes of 1001, 4001 and 10001
+ * cells per side. Other inputs are chosen with {@code -p input=...}, where each input is a
+ * maze file or the side length of a maze to generate. Each benchmark reports both its
+ * throughput in operations per microsecond and its average time per operation, and
+ * {@code -bm thrpt} or {@code -bm avgt} picks one of them.
+ * </p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class MazeBenchmarks {
+    /** The seed for generated mazes, so every run uses the same mazes */
+    private static final long SEED = 42;
+
+    /**
+     * The maze a benchmark is run on, loaded once for each input.
+     */
+    @State(Scope.Benchmark)
+    public static class Input {
+        /** The maze file, or the side length of a maze to generate */
+        @Param({"Small.txt", "Medium.txt", "Large.txt", "1001", "4001", "10001"})
+        public String input;
+
+        /** The name of the maze file, which is a temporary file for generated mazes */
+        String filename;
+
+        /** The name of the maze file converted to the binary format */
+        String binaryFilename;
+
+        /** The characters of the maze */
+        char[][] mazeData;
+
+        /**
+         * Generates the maze if needed, loads it and writes it in the binary format.
+         *
+         * @throws Exception if the maze cannot be generated, loaded or converted
+         */
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            this.filename = getMazeFile(this.input);
+            this.mazeData = new FileLoader().load(this.filename);
+            File binaryFile = File.createTempFile("maze-", ".bin");
+            binaryFile.deleteOnExit();
+            MazeFileConverter.writeBinary(this.mazeData, binaryFile.getPath());
+            this.binaryFilename = binaryFile.getPath();
+        }
+    }
+
+    /**
+     * A maze that is reset before each solve, instead of building a new one.
+     */
+    @State(Scope.Thread)
+    public static class SolveState {
+        /** The maze that is solved */
+        Maze maze;
+
+        /**
+         * Builds the maze.
+         *
+         * @param input the maze to solve
+         */
+        @Setup(Level.Trial)
+        public void setup(Input input) {
+            this.maze = new Maze(input.mazeData);
+        }
+
+        /**
+         * Clears the previous solve from the maze.
+         */
+        @Setup(Level.Invocation)
+        public void reset() {
+            this.maze.reset();
+        }
+    }
+
+    /**
+     * A fresh display before each render, so the whole maze is printed.
+     */
+    @State(Scope.Thread)
+    public static class RenderState {
+        /** The stream the display prints to, which discards everything */
+        final PrintStream nullStream = new PrintStream(OutputStream.nullOutputStream());
+
+        /** The maze that is rendered */
+        Maze maze;
+
+        /** The display that has not printed anything yet */
+        TextDisplay display;
+
+        /**
+         * Builds the maze.
+         *
+         * @param input the maze to render
+         */
+        @Setup(Level.Trial)
+        public void setup(Input input) {
+            this.maze = new Maze(input.mazeData);
+        }
+
+        /**
+         * Makes a new display, which prints the whole maze the first time.
+         */
+        @Setup(Level.Invocation)
+        public void newDisplay() {
+            this.display = new TextDisplay(this.maze, this.nullStream);
+        }
+    }
+
+    /**
+     * A display that has printed the maze once, and a player that moves back and forth
+     * between the start point and its neighbour.
+     */
+    @State(Scope.Thread)
+    public static class MoveState {
+        /** The maze the player moves in */
+        Maze maze;
+
+        /** The display that prints only what each move changed */
+        TextDisplay display;
+
+        /** The start point and its neighbour, as cell indices */
+        int[] cells;
+
+        /** The number of moves made so far */
+        int moves;
+
+        /**
+         * Builds the maze, prints it once and finds a neighbour of the start point.
+         *
+         * @param input the maze to render
+         */
+        @Setup(Level.Trial)
+        public void setup(Input input) {
+            this.maze = new Maze(input.mazeData);
+            this.display = new TextDisplay(this.maze,
+                    new PrintStream(OutputStream.nullOutputStream()));
+            this.display.displayMaze();
+
+            int start = this.maze.getStartY() * this.maze.getMazeX() + this.maze.getStartX();
+            int next = -1;
+            for (int direction = 0; next < 0 && direction < AutoNavigator.NUM_OF_MOVES;
+                    direction++) {
+                next = this.maze.getNeighbour(start, direction);
+            }
+            this.cells = new int[] {next, start};
+        }
+
+        /**
+         * Moves the player to the other cell, which does not allocate.
+         */
+        void move() {
+            int mazeX = this.maze.getMazeX();
+            int cell = this.cells[this.moves++ % 2];
+            this.maze.setPlayerCoordinates(cell % mazeX, cell / mazeX);
+        }
+    }
+
+    /**
+     * Benchmarks io.FileLoader.load().
+     *
+     * @param input the maze to load
+     * @return the loaded maze
+     * @throws Exception if the maze cannot be loaded
+     */
+    @Benchmark
+    public char[][] load(Input input) throws Exception {
+        return new FileLoader().load(input.filename);
+    }
+
+    /**
+     * Benchmarks io.BinaryFileLoader.load().
+     *
+     * @param input the maze to load
+     * @return the loaded maze
+     * @throws Exception if the maze cannot be loaded
+     */
+    @Benchmark
+    public char[][] loadBinary(Input input) throws Exception {
+        return new BinaryFileLoader().load(input.binaryFilename);
+    }
+
+    /**
+     * Benchmarks the Maze constructor.
+     *
+     * @param input the maze to construct
+     * @return the constructed maze
+     */
+    @Benchmark
+    public Maze construct(Input input) {
+        return new Maze(input.mazeData);
+    }
+
+    /**
+     * Benchmarks a headless solve with SolverEngine.
+     *
+     * @param state the maze to solve
+     * @return whether the maze was solved
+     */
+    @Benchmark
+    public boolean solve(SolveState state) {
+        return new SolverEngine(state.maze).run();
+    }
+
+    /**
+     * Benchmarks the first TextDisplay.displayMaze(), of the whole maze.
+     *
+     * @param state the display to print
+     * @return the display
+     */
+    @Benchmark
+    public TextDisplay render(RenderState state) {
+        state.display.displayMaze();
+        return state.display;
+    }
+
+    /**
+     * Benchmarks a single move followed by TextDisplay.displayMaze(). The move is made here
+     * rather than in a per-invocation fixture, as those distort timings well under a
+     * microsecond.
+     *
+     * @param state the display to print
+     * @return the display
+     */
+    @Benchmark
+    public TextDisplay renderMove(MoveState state) {
+        state.move();
+        state.display.displayMaze();
+        return state.display;
+    }
+
+    /**
+     * Gets the maze file for an input, generating one if the input is a side length.
+     */
+    private static String getMazeFile(String input) throws IOException {
+        if (!input.chars().allMatch(Character::isDigit)) {
+            return input;
+        }
+        int size = Integer.parseInt(input);
+        File file = File.createTempFile("maze-" + size + "-", ".txt");
+        file.deleteOnExit();
+        new EllerGenerator().write(size, size, SEED, file.getPath());
+        return file.getPath();
+    }
+}
@@ -0,0 +1,127 @@
+package benchmark;
+
+import generator.KruskalGenerator;
+import io.FileLoader;
+import maze.IntStack;
+import maze.Maze;
+import maze.SolverEngine;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * A class that checks that moving the player never allocates, by replaying the moves of a
+ * whole depth-first navigation many times and counting the bytes allocated by the thread.
+ * <p>
+ * Usage: {@code gradle :jmh:checkMoveAllocation}, which {@code gradle check} also runs, or
+ * {@code java benchmark.MoveAllocationCheck [inputs...]}, where the inputs are maze files
+ * or the side length of a maze to generate. The moves of each maze are recorded
+ * once from a SolverEngine, and then replayed through Maze.setPlayerCoordinates() and
+ * Maze.setPlayerBackTrack(), resetting the maze before each replay. The first replays
+ * allocate the pages of the overlay and are not measured. The JIT compiler can allocate a
+ * few bytes on the thread once while it compiles the moves, so several rounds of replays are
+ * measured and only the round that allocated least is checked, as an allocation in any move
+ * would show in every round. The check fails, and the program exits with an error, if even
+ * that round allocated. By default it is run on Large.txt and a generated maze of 1001 cells per side.
+ * </p>
+ */
+public class MoveAllocationCheck {
+    /** The inputs used when none are specified */
+    private static final String[] DEFAULT_INPUTS = {"Large.txt", "1001"};
+
+    /** The number of replays that are run before measuring */
+    private static final int WARMUP_REPLAYS = 5;
+
+    /** The number of rounds of replays that are measured */
+    private static final int MEASURE_ROUNDS = 5;
+
+    /** The number of replays in each measured round */
+    private static final int MEASURE_REPLAYS = 20;
+
+    /** The seed for generated mazes, so every run uses the same mazes */
+    private static final long SEED = 42;
+
+    /**
+     * The bean that counts the bytes allocated by each thread, kept so that counting does not
+     * allocate anything itself
+     */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Checks the moves of each input, and prints the bytes allocated per move.
+     *
+     * @param args maze files or side lengths of mazes to generate, or none for the defaults
+     * @throws Exception if a maze cannot be loaded
+     * @throws IllegalStateException if every measured round of moves allocated
+     */
+    public static void main(String[] args) throws Exception {
+        String[] inputs = args.length > 0 ? args : DEFAULT_INPUTS;
+        for (String input : inputs) {
+            Maze maze;
+            if (input.chars().allMatch(Character::isDigit)) {
+                int size = Integer.parseInt(input);
+                maze = new Maze(new KruskalGenerator().generate(size, size, SEED));
+            } else {
+                maze = new Maze(new FileLoader().load(input));
+            }
+
+            int[] moves = recordMoves(maze);
+            for (int i = 0; i < WARMUP_REPLAYS; i++) {
+                replay(maze, moves);
+            }
+            long bytes = Long.MAX_VALUE;
+            for (int round = 0; round < MEASURE_ROUNDS; round++) {
+                long start = THREADS.getCurrentThreadAllocatedBytes();
+                for (int i = 0; i < MEASURE_REPLAYS; i++) {
+                    replay(maze, moves);
+                }
+                bytes = Math.min(bytes, THREADS.getCurrentThreadAllocatedBytes() - start);
+            }
+
+            long moveCount = (long) moves.length * MEASURE_REPLAYS;
+            System.out.printf(Locale.ROOT, "%-12s %12d moves %10.3f bytes/move%n", input,
+                    moveCount, bytes / (double) moveCount);
+            if (bytes > 0) {
+                throw new IllegalStateException(input + ": " + bytes + " bytes allocated by "
+                        + moveCount + " moves");
+            }
+        }
+    }
+
+    /**
+     * Navigates the maze with a SolverEngine and records each move as the index of the cell
+     * moved to, negated and less one if the move was back towards a fork.
+     */
+    private static int[] recordMoves(Maze maze) {
+        int mazeX = maze.getMazeX();
+        IntStack moves = new IntStack();
+        SolverEngine engine = new SolverEngine(maze);
+        int x = maze.getPlayerX();
+        int y = maze.getPlayerY();
+        while (engine.step()) {
+            int cell = maze.getPlayerY() * mazeX + maze.getPlayerX();
+            moves.push(maze.getCell(x, y) == Maze.BACK_TRACKED_PATH ? -cell - 1 : cell);
+            x = maze.getPlayerX();
+            y = maze.getPlayerY();
+        }
+        maze.reset();
+        return moves.toArray();
+    }
+
+    /**
+     * Resets the maze and makes every recorded move again.
+     */
+    private static void replay(Maze maze, int[] moves) {
+        int mazeX = maze.getMazeX();
+        maze.reset();
+        for (int move : moves) {
+            int cell = move < 0 ? -move - 1 : move;
+            if (move < 0) {
+                maze.setPlayerBackTrack(cell % mazeX, cell / mazeX);
+            } else {
+                maze.setPlayerCoordinates(cell % mazeX, cell / mazeX);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package benchmark;
+
+import generator.KruskalGenerator;
+import maze.BreadthFirstSolver;
+import maze.Maze;
+import maze.ParallelBreadthFirstSolver;
+import maze.SolveResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of how the parallel breadth-first solver scales with the number of
+ * threads, compared with the sequential breadth-first solver.
+ * <p>
+ * Usage: {@code gradle :jmh:jmh -Pjmh='ParallelSolverBenchmarks'}, which generates a maze
+ * with Kruskal's algorithm and opens some of its walls to make loops, so the frontier is
+ * wide enough to split. The side length is 4001 unless chosen with {@code -p size=...}, and
+ * the parallel solver is run on 1, 2, 4, 8 and 16 threads unless chosen with
+ * {@code -p threads=...}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ParallelSolverBenchmarks {
+    /** The fraction of inner walls that are opened to make loops */
+    private static final double OPEN_FRACTION = 0.2;
+
+    /** The seed for the generated maze, so every run uses the same maze */
+    private static final long SEED = 42;
+
+    /**
+     * The maze with loops that is solved, generated once for each side length.
+     */
+    @State(Scope.Benchmark)
+    public static class Input {
+        /** The side length of the generated maze */
+        @Param("4001")
+        public int size;
+
+        /** The maze that is solved */
+        Maze maze;
+
+        /** The result of the sequential solver, which the parallel one must match */
+        SolveResult expected;
+
+        /**
+         * Generates the maze and solves it with the sequential solver.
+         */
+        @Setup(Level.Trial)
+        public void setup() {
+            this.maze = new Maze(openWalls(
+                    new KruskalGenerator().generate(this.size, this.size, SEED)));
+            this.expected = new BreadthFirstSolver().solve(this.maze);
+        }
+    }
+
+    /**
+     * A parallel solver with its own pool of threads.
+     */
+    @State(Scope.Benchmark)
+    public static class Parallel {
+        /** The number of threads in the pool */
+        @Param({"1", "2", "4", "8", "16"})
+        public int threads;
+
+        /** The pool the solver runs on */
+        ForkJoinPool pool;
+
+        /** The parallel solver */
+        ParallelBreadthFirstSolver solver;
+
+        /**
+         * Makes the pool and the solver, and checks it finds the same path as the
+         * sequential solver.
+         *
+         * @param input the maze to solve
+         * @throws IllegalStateException if the paths differ
+         */
+        @Setup(Level.Trial)
+        public void setup(Input input) {
+            this.pool = new ForkJoinPool(this.threads);
+            this.solver = new ParallelBreadthFirstSolver(this.pool);
+            if (!Arrays.equals(this.solver.solve(input.maze).getPath(),
+                    input.expected.getPath())) {
+                throw new IllegalStateException("Parallel path differs with " + this.threads
+                        + " threads");
+            }
+        }
+
+        /**
+         * Shuts down the pool.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            this.pool.shutdown();
+        }
+    }
+
+    /**
+     * Benchmarks the sequential breadth-first solver.
+     *
+     * @param input the maze to solve
+     * @return the result of the solve
+     */
+    @Benchmark
+    public SolveResult bfs(Input input) {
+        return new BreadthFirstSolver().solve(input.maze);
+    }
+
+    /**
+     * Benchmarks the parallel breadth-first solver.
+     *
+     * @param input the maze to solve
+     * @param parallel the solver to use
+     * @return the result of the solve
+     */
+    @Benchmark
+    public SolveResult parallel(Input input, Parallel parallel) {
+        return parallel.solver.solve(input.maze);
+    }
+
+    /**
+     * Opens a random fraction of the walls between cells, so the maze has loops.
+     */
+    private static char[][] openWalls(char[][] mazeData) {
+        Random random = new Random(SEED);
+        for (int y = 1; y < mazeData.length - 1; y++) {
+            for (int x = 1; x < mazeData[0].length - 1; x++) {
+                // Walls between two cells have exactly one odd coordinate.
+                if ((x + y) % 2 == 1 && mazeData[y][x] == '#'
+                        && random.nextDouble() < OPEN_FRACTION) {
+                    mazeData[y][x] = ' ';
+                }
+            }
+        }
+        return mazeData;
+    }
+}
@@ -0,0 +1,143 @@
+package benchmark;
+
+import generator.KruskalGenerator;
+import maze.BreadthFirstSolver;
+import server.SolveBatcher;
+import server.SolveServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A JMH load test of a SolveServer on localhost, which reports the requests per second and
+ * the latency percentiles of the requests.
+ * <p>
+ * Usage: {@code gradle :jmh:jmh -Pjmh='SolveServerBenchmarks'}, which starts a server
+ * solving with the breadth-first solver, and has each of 32 client threads send maze text
+ * for one of a set of generated mazes as fast as the server answers. The side lengths are
+ * 21, 51 and 201 unless chosen with {@code -p size=...}, and the number of clients is
+ * chosen with {@code -t}. The throughput mode gives the requests per second and the sample
+ * mode gives the latency percentiles. The forked JVM is started with
+ * {@code -Dsun.net.httpserver.nodelay=true}, as Launcher sets it for the server.
+ * </p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@Threads(32)
+public class SolveServerBenchmarks {
+    /** The number of different mazes generated of each side length */
+    private static final int MAZES_PER_SIZE = 16;
+
+    /**
+     * The server and the requests the clients send to it.
+     */
+    @State(Scope.Benchmark)
+    public static class Server {
+        /** The side length of the generated mazes */
+        @Param({"21", "51", "201"})
+        public int size;
+
+        /** The server under test */
+        SolveServer server;
+
+        /** The client shared by every client thread */
+        HttpClient client;
+
+        /** The requests for each generated maze */
+        HttpRequest[] requests;
+
+        /**
+         * Starts the server and builds the requests.
+         *
+         * @throws Exception if the server cannot be started
+         */
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            this.server = new SolveServer(new BreadthFirstSolver(), 0,
+                    Runtime.getRuntime().availableProcessors());
+            this.server.start();
+            URI uri = URI.create("http://localhost:" + this.server.getPort() + "/solve");
+            this.client = HttpClient.newHttpClient();
+            this.requests = new HttpRequest[MAZES_PER_SIZE];
+            for (int seed = 0; seed < MAZES_PER_SIZE; seed++) {
+                String text = toText(new KruskalGenerator().generate(this.size, this.size, seed));
+                this.requests[seed] = HttpRequest.newBuilder(uri)
+                        .POST(HttpRequest.BodyPublishers.ofString(text)).build();
+            }
+        }
+
+        /**
+         * Stops the server and prints how well the requests were batched.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            this.server.stop(0);
+            SolveBatcher batcher = this.server.getBatcher();
+            System.out.printf("# %d batches, %.2f requests per batch%n",
+                    batcher.getBatchCount(), batcher.getBatchedRequestCount()
+                            / (double) Math.max(batcher.getBatchCount(), 1));
+        }
+    }
+
+    /**
+     * The mazes one client thread has sent.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+        /** The number of requests this client has sent */
+        int sent;
+    }
+
+    /**
+     * Sends one request and waits for the answer.
+     *
+     * @param server the server to send to
+     * @param client the client sending the request
+     * @return the answer of the server
+     * @throws Exception if the request fails
+     * @throws IllegalStateException if the server did not answer with 200
+     */
+    @Benchmark
+    public String solve(Server server, Client client) throws Exception {
+        HttpRequest request = server.requests[client.sent++ % server.requests.length];
+        HttpResponse<String> response = server.client.send(request,
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Server answered " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    /**
+     * Writes a maze in the same format as a maze file.
+     */
+    private static String toText(char[][] mazeData) {
+        StringBuilder text = new StringBuilder();
+        text.append(mazeData.length).append(' ').append(mazeData[0].length);
+        for (char[] row : mazeData) {
+            text.append('\n').append(row);
+        }
+        return text.append('\n').toString();
+    }
+}
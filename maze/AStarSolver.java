@@ -0,0 +1,80 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * A class that finds the shortest path through the maze with an A* search, using the
+ * Manhattan distance to the end point as its heuristic.
+ */
+public class AStarSolver implements Solver {
+    /**
+     * Expands the cell with the lowest estimated total path length first, so cells that
+     * lead away from the end point are only expanded when they have to be.
+     *
+     * @param maze an instance of Maze containing all maze data and components
+     * @return the shortest path, along with the number of nodes expanded and the time taken.
+     */
+    @Override
+    public SolveResult solve(Maze maze) {
+        long startTime = System.nanoTime();
+        int mazeX = maze.getMazeX();
+        int start = maze.getStartY() * mazeX + maze.getStartX();
+        int end = maze.getEndY() * mazeX + maze.getEndX();
+
+        // Length of the shortest known path to each cell, where -1 means it has not been
+        // reached, and the cell it was reached from.
+        int[] cost = new int[mazeX * maze.getMazeY()];
+        Arrays.fill(cost, -1);
+        int[] parent = new int[cost.length];
+        boolean[] closed = new boolean[cost.length];
+        OpenSet open = new OpenSet();
+
+        cost[start] = 0;
+        open.push(estimate(maze, start), start);
+        long nodesExpanded = 0;
+        while (!open.isEmpty()) {
+            int cell = open.pop();
+            if (closed[cell]) {
+                continue;
+            }
+            closed[cell] = true;
+            nodesExpanded++;
+            if (cell == end) {
+                break;
+            }
+
+            for (int move = 0; move < AutoNavigator.NUM_OF_MOVES; move++) {
+                int next = maze.getNeighbour(cell, move);
+                if (next < 0 || closed[next]) {
+                    continue;
+                }
+                int nextCost = cost[cell] + 1;
+                if (cost[next] < 0 || nextCost < cost[next]) {
+                    cost[next] = nextCost;
+                    parent[next] = cell;
+                    open.push(nextCost + estimate(maze, next), next);
+                }
+            }
+        }
+
+        if (!closed[end]) {
+            return new SolveResult(new int[0], nodesExpanded, System.nanoTime() - startTime);
+        }
+
+        // Follow the parent of each cell from the end point back to the start point.
+        int[] path = new int[cost[end] + 1];
+        for (int i = path.length - 1, cell = end; i >= 0; i--, cell = parent[cell]) {
+            path[i] = cell;
+        }
+        return new SolveResult(path, nodesExpanded, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Estimates the number of moves from the specified cell to the end point.
+     */
+    private static int estimate(Maze maze, int cell) {
+        int x = cell % maze.getMazeX();
+        int y = cell / maze.getMazeX();
+        return Math.abs(x - maze.getEndX()) + Math.abs(y - maze.getEndY());
+    }
+}
@@ -0,0 +1,49 @@
+package maze;
+
+/**
+ * A class that stores the cell codes of a maze in a single array, one byte per cell. This
+ * is the fastest store, but it can only hold mazes with fewer cells than fit in an array.
+ */
+public class ArrayCellStore implements CellStore {
+    /** The length of the maze in y-axis */
+    private final int mazeY;
+
+    /** The length of the maze in x-axis */
+    private final int mazeX;
+
+    /** The cell code of every cell, indexed by y * mazeX + x */
+    private final byte[] cells;
+
+    /**
+     * Constructor for a store of the specified cell codes.
+     *
+     * @param mazeY length of the maze in y-axis
+     * @param mazeX length of the maze in x-axis
+     * @param cells the cell code of every cell, indexed by y * mazeX + x, which is not copied
+     */
+    public ArrayCellStore(int mazeY, int mazeX, byte[] cells) {
+        this.mazeY = mazeY;
+        this.mazeX = mazeX;
+        this.cells = cells;
+    }
+
+    @Override
+    public int getMazeX() {
+        return this.mazeX;
+    }
+
+    @Override
+    public int getMazeY() {
+        return this.mazeY;
+    }
+
+    @Override
+    public byte getCell(long cell) {
+        return this.cells[(int) cell];
+    }
+
+    @Override
+    public byte getCell(int x, int y) {
+        return this.cells[y * this.mazeX + x];
+    }
+}
@@ -0,0 +1,92 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * A class that finds the shortest path through the maze with two breadth-first searches,
+ * one from the start point and one from the end point, that stop when they meet.
+ */
+public class BidirectionalSolver implements Solver {
+
+    /**
+     * Grows whichever search has the smaller frontier by one distance at a time until the
+     * two searches reach a common cell.
+     *
+     * @param maze an instance of Maze containing all maze data and components
+     * @return the shortest path, along with the number of nodes expanded and the time taken.
+     */
+    @Override
+    public SolveResult solve(Maze maze) {
+        long startTime = System.nanoTime();
+        int mazeX = maze.getMazeX();
+        int cells = mazeX * maze.getMazeY();
+        int start = maze.getStartY() * mazeX + maze.getStartX();
+        int end = maze.getEndY() * mazeX + maze.getEndX();
+
+        // Distance of each cell from the start point and from the end point, where -1
+        // means it has not been reached by that search.
+        int[] fromStart = new int[cells];
+        int[] fromEnd = new int[cells];
+        Arrays.fill(fromStart, -1);
+        Arrays.fill(fromEnd, -1);
+        int[] startQueue = new int[cells];
+        int[] endQueue = new int[cells];
+        // Head and tail of each queue, where the start queue is index 0 and end queue is 1.
+        int[] heads = new int[2];
+        int[] tails = {1, 1};
+
+        fromStart[start] = 0;
+        startQueue[0] = start;
+        fromEnd[end] = 0;
+        endQueue[0] = end;
+        int meeting = start == end ? start : -1;
+        long nodesExpanded = 0;
+
+        while (meeting < 0 && heads[0] < tails[0] && heads[1] < tails[1]) {
+            // Grow the search with the smaller frontier by one whole distance.
+            int side = tails[0] - heads[0] <= tails[1] - heads[1] ? 0 : 1;
+            int[] queue = side == 0 ? startQueue : endQueue;
+            int[] distance = side == 0 ? fromStart : fromEnd;
+            int[] other = side == 0 ? fromEnd : fromStart;
+
+            int levelEnd = tails[side];
+            int best = -1;
+            while (heads[side] < levelEnd) {
+                int cell = queue[heads[side]++];
+                nodesExpanded++;
+                for (int move = 0; move < AutoNavigator.NUM_OF_MOVES; move++) {
+                    int next = maze.getNeighbour(cell, move);
+                    if (next < 0) {
+                        continue;
+                    }
+                    if (distance[next] < 0) {
+                        distance[next] = distance[cell] + 1;
+                        queue[tails[side]++] = next;
+                    }
+                    // Keep the shortest path through any cell both searches have reached.
+                    if (other[next] >= 0) {
+                        int length = distance[next] + other[next];
+                        if (best < 0 || length < best) {
+                            best = length;
+                            meeting = next;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (meeting < 0) {
+            return new SolveResult(new int[0], nodesExpanded, System.nanoTime() - startTime);
+        }
+
+        // Join the path from the start point to the meeting cell with the reversed path
+        // from the end point to the meeting cell.
+        int[] toMeeting = BreadthFirstSolver.tracePath(maze, fromStart, meeting);
+        int[] fromMeeting = BreadthFirstSolver.tracePath(maze, fromEnd, meeting);
+        int[] path = Arrays.copyOf(toMeeting, toMeeting.length + fromMeeting.length - 1);
+        for (int i = 1; i < fromMeeting.length; i++) {
+            path[toMeeting.length - 1 + i] = fromMeeting[fromMeeting.length - 1 - i];
+        }
+        return new SolveResult(path, nodesExpanded, System.nanoTime() - startTime);
+    }
+}
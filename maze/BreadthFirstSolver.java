@@ -0,0 +1,76 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * A class that finds the shortest path through the maze with a breadth-first search.
+ */
+public class BreadthFirstSolver implements Solver {
+
+    /**
+     * Searches outwards from the start point one distance at a time until the end point
+     * is reached, so the path found is always a shortest path.
+     *
+     * @param maze an instance of Maze containing all maze data and components
+     * @return the shortest path, along with the number of nodes expanded and the time taken.
+     */
+    @Override
+    public SolveResult solve(Maze maze) {
+        long startTime = System.nanoTime();
+        int mazeX = maze.getMazeX();
+        int start = maze.getStartY() * mazeX + maze.getStartX();
+        int end = maze.getEndY() * mazeX + maze.getEndX();
+
+        // Distance of each cell from the start point, where -1 means it has not been reached.
+        int[] distance = new int[mazeX * maze.getMazeY()];
+        Arrays.fill(distance, -1);
+        int[] queue = new int[distance.length];
+        int head = 0;
+        int tail = 0;
+
+        distance[start] = 0;
+        queue[tail++] = start;
+        long nodesExpanded = 0;
+        while (head < tail && distance[end] < 0) {
+            int cell = queue[head++];
+            nodesExpanded++;
+            for (int move = 0; move < AutoNavigator.NUM_OF_MOVES; move++) {
+                int next = maze.getNeighbour(cell, move);
+                if (next >= 0 && distance[next] < 0) {
+                    distance[next] = distance[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        int[] path = distance[end] < 0 ? new int[0] : tracePath(maze, distance, end);
+        return new SolveResult(path, nodesExpanded, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Makes the path from the cell at distance 0 to the specified cell by repeatedly
+     * stepping to the first neighbour, in order of the moves array, that is one closer.
+     * Always choosing the first neighbour means every solver that records distances
+     * gives the same path for the same maze.
+     *
+     * @param maze an instance of Maze containing all maze data and components
+     * @param distance distance of each cell from the source, or -1 if it was not reached
+     * @param cell index of the cell to make the path to
+     * @return cell indices of the path, starting at the source and ending at cell.
+     */
+    static int[] tracePath(Maze maze, int[] distance, int cell) {
+        int[] path = new int[distance[cell] + 1];
+        for (int i = path.length - 1; i > 0; i--) {
+            path[i] = cell;
+            for (int move = 0; move < AutoNavigator.NUM_OF_MOVES; move++) {
+                int previous = maze.getNeighbour(cell, move);
+                if (previous >= 0 && distance[previous] == distance[cell] - 1) {
+                    cell = previous;
+                    break;
+                }
+            }
+        }
+        path[0] = cell;
+        return path;
+    }
+}
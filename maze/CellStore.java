@@ -0,0 +1,39 @@
+package maze;
+
+/**
+ * An interface for the storage of the cell codes of a maze layout. The cell codes are
+ * either Maze.WALL, Maze.PATH or Maze.END_POINT, and a cell's index is y * getMazeX() + x,
+ * which is a long so that stores can hold more cells than fit in an array.
+ */
+public interface CellStore {
+    /**
+     * Gets the length of the maze in x-axis.
+     *
+     * @return length of maze in x-axis
+     */
+    int getMazeX();
+
+    /**
+     * Gets the length of the maze in y-axis.
+     *
+     * @return length of maze in y-axis
+     */
+    int getMazeY();
+
+    /**
+     * Gets the cell code of a cell.
+     *
+     * @param cell index of the cell, which is y * getMazeX() + x
+     * @return Maze.WALL, Maze.PATH or Maze.END_POINT
+     */
+    byte getCell(long cell);
+
+    /**
+     * Gets the cell code of the cell at the specified coordinates.
+     *
+     * @param x x-coordinate of the cell
+     * @param y y-coordinate of the cell
+     * @return Maze.WALL, Maze.PATH or Maze.END_POINT
+     */
+    byte getCell(int x, int y);
+}
@@ -0,0 +1,191 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * A class that labels every open cell of a maze with the connected component it belongs
+ * to. Once it has been built, whether one cell can be reached from another, and so whether
+ * the maze can be solved at all, is answered in constant time without searching the maze.
+ * <p>
+ * The components are found in two passes over the cells in row-major order. The first pass
+ * is a scanline union-find, which joins each open cell to the sets of its open neighbours
+ * to the left and above, and the second replaces each cell's parent with the number of its
+ * component. The parents are kept in the array of components itself, so the index needs 4
+ * bytes a cell, plus 4 bytes for the size of each component, and no queue or stack.
+ * </p>
+ * <p>
+ * The index depends only on the walls of a maze, so each MazeLayout builds its index once,
+ * the first time it is asked for, and every run through the layout shares it.
+ * </p>
+ */
+public class ConnectivityIndex {
+    /** The component of a cell that is a wall */
+    public static final int NO_COMPONENT = -1;
+
+    /** The length of the maze in x-axis, used to pack coordinates into a cell index */
+    private final int mazeX;
+
+    /** The component of each cell, or NO_COMPONENT for walls, indexed by y * mazeX + x */
+    private final int[] components;
+
+    /** The number of cells in each component, indexed by the component */
+    private final int[] sizes;
+
+    /** The index of the start point */
+    private final int start;
+
+    /** The index of the end point */
+    private final int end;
+
+    /**
+     * Constructor which labels every open cell of the maze layout with its component. The
+     * components are numbered from 0 in the order their first cell appears, row by row.
+     *
+     * @param layout the walls, start point and end point of the maze
+     * @throws IllegalArgumentException if the maze has more than Integer.MAX_VALUE cells,
+     *         which is more than an array can hold
+     */
+    public ConnectivityIndex(MazeLayout layout) throws IllegalArgumentException {
+        if (layout.getCellCount() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Maze has too many cells to index: "
+                    + layout.getCellCount());
+        }
+        this.mazeX = layout.getMazeX();
+        int mazeY = layout.getMazeY();
+        this.components = new int[this.mazeX * mazeY];
+        this.start = layout.getStartY() * this.mazeX + layout.getStartX();
+        this.end = layout.getEndY() * this.mazeX + layout.getEndX();
+
+        // Scan the maze row by row, joining each open cell to the sets of the open cells to
+        // its left and above it. Each set is kept rooted at its first cell, so every cell
+        // points to an earlier one.
+        int[] parent = this.components;
+        for (int y = 0; y < mazeY; y++) {
+            for (int x = 0; x < this.mazeX; x++) {
+                int cell = y * this.mazeX + x;
+                if (layout.getCell(cell) == Maze.WALL) {
+                    parent[cell] = NO_COMPONENT;
+                    continue;
+                }
+                int root = cell;
+                if (x > 0 && parent[cell - 1] != NO_COMPONENT) {
+                    root = find(parent, cell - 1);
+                }
+                if (y > 0 && parent[cell - this.mazeX] != NO_COMPONENT) {
+                    int above = find(parent, cell - this.mazeX);
+                    if (root == cell) {
+                        root = above;
+                    } else if (above != root) {
+                        parent[Math.max(above, root)] = Math.min(above, root);
+                        root = Math.min(above, root);
+                    }
+                }
+                parent[cell] = root;
+            }
+        }
+
+        // Replace each parent with the component of its set, in the same order. The parent
+        // of each cell comes before it, so the parent already holds its component.
+        int[] sizes = new int[16];
+        int count = 0;
+        for (int cell = 0; cell < parent.length; cell++) {
+            int previous = parent[cell];
+            if (previous == NO_COMPONENT) {
+                continue;
+            }
+            if (previous == cell) {
+                if (count == sizes.length) {
+                    sizes = Arrays.copyOf(sizes, count * 2);
+                }
+                this.components[cell] = count++;
+            } else {
+                this.components[cell] = this.components[previous];
+            }
+            sizes[this.components[cell]]++;
+        }
+        this.sizes = Arrays.copyOf(sizes, count);
+    }
+
+    /**
+     * Finds the first cell of the set a cell belongs to, pointing every cell on the way at
+     * its grandparent so later searches are shorter.
+     */
+    private static int find(int[] parent, int cell) {
+        while (parent[cell] != cell) {
+            parent[cell] = parent[parent[cell]];
+            cell = parent[cell];
+        }
+        return cell;
+    }
+
+    /**
+     * Gets the component of a cell.
+     *
+     * @param cell index of the cell, which is y * mazeX + x
+     * @return the component of the cell, or NO_COMPONENT if it is a wall
+     */
+    public int getComponent(int cell) {
+        return this.components[cell];
+    }
+
+    /**
+     * Gets the component of the cell at the specified coordinates.
+     *
+     * @param x x-coordinate of the cell
+     * @param y y-coordinate of the cell
+     * @return the component of the cell, or NO_COMPONENT if it is a wall
+     */
+    public int getComponent(int x, int y) {
+        return this.components[y * this.mazeX + x];
+    }
+
+    /**
+     * Determines whether one cell can be reached from another.
+     *
+     * @param from index of the cell to start from
+     * @param to index of the cell to reach
+     * @return true if both cells are open and in the same component, else return false.
+     */
+    public boolean isConnected(int from, int to) {
+        return this.components[from] != NO_COMPONENT
+                && this.components[from] == this.components[to];
+    }
+
+    /**
+     * Determines whether the end point can be reached from the start point.
+     *
+     * @return true if the maze can be solved, else return false.
+     */
+    public boolean isSolvable() {
+        return isConnected(this.start, this.end);
+    }
+
+    /**
+     * Gets the number of components in the maze.
+     *
+     * @return number of components
+     */
+    public int getComponentCount() {
+        return this.sizes.length;
+    }
+
+    /**
+     * Gets the number of cells in a component.
+     *
+     * @param component the component, from 0 to getComponentCount() - 1
+     * @return number of cells in the component
+     */
+    public int getComponentSize(int component) {
+        return this.sizes[component];
+    }
+
+    /**
+     * Gets the number of cells in the component of the start point, which are all the
+     * cells the player can ever visit.
+     *
+     * @return number of cells reachable from the start point
+     */
+    public int getReachableSize() {
+        return this.sizes[this.components[this.start]];
+    }
+}
@@ -0,0 +1,227 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * A class that compresses a maze into a graph of its junctions, dead ends, start point and
+ * end point, joined by the corridors between them. Most open cells of a maze are corridor
+ * cells with exactly two open neighbours, so searching the graph skips the long straight
+ * walks a search of the cells makes, and each corridor is walked again only if it is on
+ * the path found.
+ * <p>
+ * The graph is stored in compressed sparse row arrays: the edges leaving each node are
+ * stored together, from edgeOffsets[node] up to edgeOffsets[node + 1]. Each edge stores the
+ * node it leads to, its length in moves and the direction of its first move, which is all
+ * that is needed to walk the corridor back into cells. Nodes are numbered in the order of
+ * their cells, so the node of a cell is found with a binary search and no array the size of
+ * the maze is kept.
+ * </p>
+ */
+public class CorridorGraph {
+    /** The node of a cell that is not a node of the graph */
+    public static final int NO_NODE = -1;
+
+    /** The walls, start point and end point of the maze */
+    private final MazeLayout layout;
+
+    /** The index of the start point */
+    private final int start;
+
+    /** The index of the end point */
+    private final int end;
+
+    /** The cell index of each node, in increasing order */
+    private final int[] nodeCells;
+
+    /** The index of the first edge of each node, with the number of edges at the end */
+    private final int[] edgeOffsets;
+
+    /** The node each edge leads to */
+    private final int[] edgeTargets;
+
+    /** The number of moves along each edge */
+    private final int[] edgeWeights;
+
+    /** The direction of the first move along each edge, one of AutoNavigator.UP, DOWN, etc. */
+    private final byte[] edgeDirections;
+
+    /**
+     * Constructor which finds the nodes of the maze layout and walks every corridor
+     * leaving each node to find the edges.
+     *
+     * @param layout the walls, start point and end point of the maze
+     */
+    public CorridorGraph(MazeLayout layout) {
+        this.layout = layout;
+        int mazeX = layout.getMazeX();
+        this.start = layout.getStartY() * mazeX + layout.getStartX();
+        this.end = layout.getEndY() * mazeX + layout.getEndX();
+
+        // Every open cell that is not in the middle of a corridor is a node.
+        IntStack nodes = new IntStack();
+        int cells = mazeX * layout.getMazeY();
+        for (int cell = 0; cell < cells; cell++) {
+            if (layout.getCell(cell) != Maze.WALL && isNode(cell)) {
+                nodes.push(cell);
+            }
+        }
+        this.nodeCells = nodes.toArray();
+
+        // Walk each corridor leaving each node until it reaches another node. Corridors that
+        // lead back to the node they left are never on a shortest path, so they are dropped.
+        this.edgeOffsets = new int[this.nodeCells.length + 1];
+        IntStack targets = new IntStack();
+        IntStack weights = new IntStack();
+        IntStack directions = new IntStack();
+        for (int node = 0; node < this.nodeCells.length; node++) {
+            this.edgeOffsets[node] = targets.size();
+            int from = this.nodeCells[node];
+            for (int direction = 0; direction < AutoNavigator.NUM_OF_MOVES; direction++) {
+                int previous = from;
+                int cell = layout.getNeighbour(from, direction);
+                if (cell < 0) {
+                    continue;
+                }
+                int weight = 1;
+                while (!isNode(cell)) {
+                    int next = getOtherNeighbour(cell, previous);
+                    previous = cell;
+                    cell = next;
+                    weight++;
+                }
+                if (cell != from) {
+                    targets.push(getNode(cell));
+                    weights.push(weight);
+                    directions.push(direction);
+                }
+            }
+        }
+        this.edgeOffsets[this.nodeCells.length] = targets.size();
+        this.edgeTargets = targets.toArray();
+        this.edgeWeights = weights.toArray();
+        this.edgeDirections = new byte[this.edgeTargets.length];
+        for (int edge = 0; edge < this.edgeDirections.length; edge++) {
+            this.edgeDirections[edge] = (byte) directions.get(edge);
+        }
+    }
+
+    /**
+     * Gets the number of nodes in the graph.
+     *
+     * @return number of nodes
+     */
+    public int getNodeCount() {
+        return this.nodeCells.length;
+    }
+
+    /**
+     * Gets the number of edges in the graph. Every corridor is an edge in each direction.
+     *
+     * @return number of edges
+     */
+    public int getEdgeCount() {
+        return this.edgeTargets.length;
+    }
+
+    /**
+     * Gets the node of a cell.
+     *
+     * @param cell index of the cell, which is y * mazeX + x
+     * @return the node of the cell, or NO_NODE if it is a wall or in the middle of a corridor
+     */
+    public int getNode(int cell) {
+        int node = Arrays.binarySearch(this.nodeCells, cell);
+        return node < 0 ? NO_NODE : node;
+    }
+
+    /**
+     * Gets the cell of a node.
+     *
+     * @param node the node, from 0 to getNodeCount() - 1
+     * @return index of the cell of the node, which is y * mazeX + x
+     */
+    public int getNodeCell(int node) {
+        return this.nodeCells[node];
+    }
+
+    /**
+     * Gets the first edge leaving a node. The edges leaving the node are numbered from
+     * getFirstEdge(node) up to, but not including, getFirstEdge(node + 1).
+     *
+     * @param node the node, from 0 to getNodeCount()
+     * @return the first edge leaving the node
+     */
+    public int getFirstEdge(int node) {
+        return this.edgeOffsets[node];
+    }
+
+    /**
+     * Gets the node an edge leads to.
+     *
+     * @param edge the edge, from 0 to getEdgeCount() - 1
+     * @return the node at the end of the edge
+     */
+    public int getEdgeTarget(int edge) {
+        return this.edgeTargets[edge];
+    }
+
+    /**
+     * Gets the number of moves along an edge.
+     *
+     * @param edge the edge, from 0 to getEdgeCount() - 1
+     * @return length of the corridor in moves
+     */
+    public int getEdgeWeight(int edge) {
+        return this.edgeWeights[edge];
+    }
+
+    /**
+     * Walks the corridor of an edge and pushes each cell after the cell it leaves from,
+     * ending with the cell of the node it leads to.
+     *
+     * @param from the node the edge leaves from
+     * @param edge an edge leaving the node
+     * @param path the stack to push the cells of the corridor onto
+     */
+    public void appendCorridor(int from, int edge, IntStack path) {
+        int previous = this.nodeCells[from];
+        int cell = this.layout.getNeighbour(previous, this.edgeDirections[edge]);
+        path.push(cell);
+        for (int step = 1; step < this.edgeWeights[edge]; step++) {
+            int next = getOtherNeighbour(cell, previous);
+            previous = cell;
+            cell = next;
+            path.push(cell);
+        }
+    }
+
+    /**
+     * Determines whether an open cell is a node, which is any cell that is the start point,
+     * the end point, or does not have exactly two open neighbours.
+     */
+    private boolean isNode(int cell) {
+        if (cell == this.start || cell == this.end) {
+            return true;
+        }
+        int neighbours = 0;
+        for (int direction = 0; direction < AutoNavigator.NUM_OF_MOVES; direction++) {
+            if (this.layout.getNeighbour(cell, direction) >= 0) {
+                neighbours++;
+            }
+        }
+        return neighbours != 2;
+    }
+
+    /**
+     * Gets the open neighbour of a corridor cell that is not the cell it was entered from.
+     */
+    private int getOtherNeighbour(int cell, int previous) {
+        for (int direction = 0; direction < AutoNavigator.NUM_OF_MOVES; direction++) {
+            int next = this.layout.getNeighbour(cell, direction);
+            if (next >= 0 && next != previous) {
+                return next;
+            }
+        }
+        return previous;
+    }
+}
@@ -0,0 +1,96 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * A class that finds the shortest path through the maze with an A* search of its
+ * CorridorGraph, using the Manhattan distance to the end point as its heuristic. Only the
+ * junctions, dead ends, start point and end point are expanded, and the corridors on the
+ * path found are walked back into cells at the end.
+ */
+public class CorridorSolver implements Solver {
+
+    /**
+     * Expands the node with the lowest estimated total path length first, and then walks
+     * the corridors between the nodes on the path. The corridor graph of the maze is built
+     * the first time it is solved, and shared by every later solve of the same layout.
+     *
+     * @param maze an instance of Maze containing all maze data and components
+     * @return the shortest path, along with the number of nodes expanded and the time taken.
+     */
+    @Override
+    public SolveResult solve(Maze maze) {
+        long startTime = System.nanoTime();
+        CorridorGraph graph = maze.getCorridorGraph();
+        int mazeX = maze.getMazeX();
+        int start = graph.getNode(maze.getStartY() * mazeX + maze.getStartX());
+        int end = graph.getNode(maze.getEndY() * mazeX + maze.getEndX());
+
+        // Length of the shortest known path to each node, where -1 means it has not been
+        // reached, and the edge it was reached along.
+        int[] cost = new int[graph.getNodeCount()];
+        Arrays.fill(cost, -1);
+        int[] parentEdge = new int[cost.length];
+        int[] parent = new int[cost.length];
+        boolean[] closed = new boolean[cost.length];
+        OpenSet open = new OpenSet();
+
+        cost[start] = 0;
+        open.push(estimate(maze, graph, start), start);
+        long nodesExpanded = 0;
+        while (!open.isEmpty()) {
+            int node = open.pop();
+            if (closed[node]) {
+                continue;
+            }
+            closed[node] = true;
+            nodesExpanded++;
+            if (node == end) {
+                break;
+            }
+
+            for (int edge = graph.getFirstEdge(node); edge < graph.getFirstEdge(node + 1);
+                    edge++) {
+                int next = graph.getEdgeTarget(edge);
+                if (closed[next]) {
+                    continue;
+                }
+                int nextCost = cost[node] + graph.getEdgeWeight(edge);
+                if (cost[next] < 0 || nextCost < cost[next]) {
+                    cost[next] = nextCost;
+                    parentEdge[next] = edge;
+                    parent[next] = node;
+                    open.push(nextCost + estimate(maze, graph, next), next);
+                }
+            }
+        }
+
+        if (!closed[end]) {
+            return new SolveResult(new int[0], nodesExpanded, System.nanoTime() - startTime);
+        }
+
+        // Follow the parent of each node from the end point back to the start point, and
+        // then walk the corridors between them forwards.
+        IntStack nodes = new IntStack();
+        for (int node = end; node != start; node = parent[node]) {
+            nodes.push(node);
+        }
+        IntStack path = new IntStack(cost[end] + 1);
+        path.push(graph.getNodeCell(start));
+        while (!nodes.isEmpty()) {
+            int node = nodes.pop();
+            graph.appendCorridor(parent[node], parentEdge[node], path);
+        }
+        return new SolveResult(path.toArray(), nodesExpanded, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Estimates the number of moves from the cell of the specified node to the end point.
+     */
+    private static int estimate(Maze maze, CorridorGraph graph, int node) {
+        int cell = graph.getNodeCell(node);
+        int x = cell % maze.getMazeX();
+        int y = cell / maze.getMazeX();
+        return Math.abs(x - maze.getEndX()) + Math.abs(y - maze.getEndY());
+    }
+}
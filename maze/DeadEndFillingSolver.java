@@ -0,0 +1,87 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * A class that finds a path through the maze by filling in every dead end until only
+ * the paths between the start point and end point are left.
+ */
+public class DeadEndFillingSolver implements Solver {
+
+    /**
+     * Fills each open cell that has at most one open neighbour, other than the start point
+     * and end point, until there are none left, and then follows the remaining cells from
+     * the start point to the end point. In a maze without loops, the remaining cells are
+     * exactly the path.
+     *
+     * @param maze an instance of Maze containing all maze data and components
+     * @return the path found, along with the number of nodes expanded and the time taken.
+     */
+    @Override
+    public SolveResult solve(Maze maze) {
+        long startTime = System.nanoTime();
+        int mazeX = maze.getMazeX();
+        int cells = mazeX * maze.getMazeY();
+        int start = maze.getStartY() * mazeX + maze.getStartX();
+        int end = maze.getEndY() * mazeX + maze.getEndX();
+
+        // Count the open neighbours of every open cell, and queue each dead end.
+        byte[] openNeighbours = new byte[cells];
+        boolean[] filled = new boolean[cells];
+        int[] queue = new int[cells];
+        int head = 0;
+        int tail = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (maze.getCell(cell % mazeX, cell / mazeX) == Maze.WALL) {
+                filled[cell] = true;
+                continue;
+            }
+            for (int move = 0; move < AutoNavigator.NUM_OF_MOVES; move++) {
+                if (maze.getNeighbour(cell, move) >= 0) {
+                    openNeighbours[cell]++;
+                }
+            }
+            if (openNeighbours[cell] <= 1 && cell != start && cell != end) {
+                queue[tail++] = cell;
+            }
+        }
+
+        // Fill each dead end, which may turn the cell next to it into a new dead end.
+        long nodesExpanded = 0;
+        while (head < tail) {
+            int cell = queue[head++];
+            filled[cell] = true;
+            nodesExpanded++;
+            for (int move = 0; move < AutoNavigator.NUM_OF_MOVES; move++) {
+                int next = maze.getNeighbour(cell, move);
+                if (next >= 0 && !filled[next] && --openNeighbours[next] == 1
+                        && next != start && next != end) {
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        // Follow the cells that are left from the start point to the end point.
+        int[] distance = new int[cells];
+        Arrays.fill(distance, -1);
+        head = 0;
+        tail = 0;
+        distance[start] = 0;
+        queue[tail++] = start;
+        while (head < tail && distance[end] < 0) {
+            int cell = queue[head++];
+            nodesExpanded++;
+            for (int move = 0; move < AutoNavigator.NUM_OF_MOVES; move++) {
+                int next = maze.getNeighbour(cell, move);
+                if (next >= 0 && !filled[next] && distance[next] < 0) {
+                    distance[next] = distance[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        int[] path = distance[end] < 0
+                ? new int[0] : BreadthFirstSolver.tracePath(maze, distance, end);
+        return new SolveResult(path, nodesExpanded, System.nanoTime() - startTime);
+    }
+}
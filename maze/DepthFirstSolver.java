@@ -0,0 +1,60 @@
+package maze;
+
+import java.util.BitSet;
+
+/**
+ * A class that finds a path through the maze with the same depth-first search as the
+ * AutoNavigator, but without moving the player. The path found is not always the
+ * shortest one.
+ */
+public class DepthFirstSolver implements Solver {
+    /** The initial capacity of the cell stack */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Follows each path as deep as it goes before trying the next one, until the end
+     * point is reached.
+     *
+     * @param maze an instance of Maze containing all maze data and components
+     * @return the path found, along with the number of nodes expanded and the time taken.
+     */
+    @Override
+    public SolveResult solve(Maze maze) {
+        long startTime = System.nanoTime();
+        int mazeX = maze.getMazeX();
+        int start = maze.getStartY() * mazeX + maze.getStartX();
+        int end = maze.getEndY() * mazeX + maze.getEndX();
+
+        BitSet visited = new BitSet(mazeX * maze.getMazeY());
+        IntStack stack = new IntStack(INITIAL_CAPACITY);
+
+        // Only the next direction to try from the top cell is kept, as the moves are tried
+        // in order and the last one tried from a cell is towards the cell popped off it.
+        stack.push(start);
+        visited.set(start);
+        int direction = 0;
+        long nodesExpanded = 1;
+        while (!stack.isEmpty() && stack.peek() != end) {
+            if (direction == AutoNavigator.NUM_OF_MOVES) {
+                int cell = stack.pop();
+                if (!stack.isEmpty()) {
+                    direction = maze.getDirection(stack.peek(), cell) + 1;
+                }
+                continue;
+            }
+
+            int next = maze.getNeighbour(stack.peek(), direction++);
+            if (next < 0 || visited.get(next)) {
+                continue;
+            }
+
+            visited.set(next);
+            stack.push(next);
+            direction = 0;
+            nodesExpanded++;
+        }
+
+        // The stack holds the path from the start point to the end point if it was found.
+        return new SolveResult(stack.toArray(), nodesExpanded, System.nanoTime() - startTime);
+    }
+}
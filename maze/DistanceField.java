@@ -0,0 +1,272 @@
+package maze;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * A class that stores the length of the shortest path from every cell of a maze to its end
+ * point, found with a single breadth-first search backwards from the end point. Once it has
+ * been built, the distance and next move from any cell are found in constant time, and the
+ * route from any cell is walked in time proportional to its length.
+ * <p>
+ * The route is always a shortest path, but when a maze has loops and more than one shortest
+ * path, it can differ from the path found by BreadthFirstSolver, as ties are broken by the
+ * order of the moves from each cell towards the end point.
+ * </p>
+ * <p>
+ * Distance fields depend only on the walls and end point of a maze, so they are cached by a
+ * hash of those, and loading the same maze file again reuses the field already built. A
+ * cached field is only reused once its walls and end point have been checked to be the same,
+ * so mazes whose hashes collide never share a field. The cache holds fields of up to
+ * MAX_CACHED_CELLS cells in total, evicting the least recently used first.
+ * </p>
+ */
+public class DistanceField {
+    /** The distance of a cell that is a wall or cannot reach the end point */
+    public static final int UNREACHABLE = -1;
+
+    /** The maximum total number of cells of the cached distance fields, at 4 bytes a cell */
+    public static final long MAX_CACHED_CELLS = 1L << 24;
+
+    /**
+     * The cached distance fields, keyed by the hash of their maze layout, from least to most
+     * recently used
+     */
+    private static final LinkedHashMap<Long, DistanceField> CACHE =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The total number of cells of the cached distance fields */
+    private static long cachedCells;
+
+    /** The layout the field was built for, to check a cached field is for the same maze */
+    private final MazeLayout layout;
+
+    /** The length of the maze in x-axis, used to pack coordinates into a cell index */
+    private final int mazeX;
+
+    /** The distance from each cell to the end point, indexed by y * mazeX + x */
+    private final int[] distance;
+
+    /**
+     * Gets the distance field for a maze, from the cache if a maze with the same walls and
+     * end point has been seen before, or else by building a new one.
+     *
+     * @param maze an instance of Maze containing all maze data and components
+     * @return the distance field for the maze
+     * @throws IllegalArgumentException if the maze has more than Integer.MAX_VALUE cells
+     */
+    public static DistanceField getDistanceField(Maze maze) throws IllegalArgumentException {
+        MazeLayout layout = maze.getLayout();
+        long hash = hashLayout(layout);
+        synchronized (CACHE) {
+            DistanceField field = CACHE.get(hash);
+            if (field != null && field.isFor(layout)) {
+                return field;
+            }
+        }
+
+        // Build the field outside the lock so other mazes are not held up.
+        DistanceField field = new DistanceField(maze);
+        synchronized (CACHE) {
+            cache(hash, field);
+        }
+        return field;
+    }
+
+    /**
+     * Adds a field to the cache, replacing any field with the same hash, and evicts the
+     * least recently used fields until the cache is within MAX_CACHED_CELLS. Fields larger
+     * than the whole cache are not cached.
+     */
+    private static void cache(long hash, DistanceField field) {
+        if (field.distance.length > MAX_CACHED_CELLS) {
+            return;
+        }
+        DistanceField replaced = CACHE.put(hash, field);
+        if (replaced != null) {
+            cachedCells -= replaced.distance.length;
+        }
+        cachedCells += field.distance.length;
+
+        Iterator<DistanceField> eldest = CACHE.values().iterator();
+        while (cachedCells > MAX_CACHED_CELLS) {
+            cachedCells -= eldest.next().distance.length;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Constructor which builds the distance field with a breadth-first search from the end
+     * point of the maze.
+     *
+     * @param maze an instance of Maze containing all maze data and components
+     * @throws IllegalArgumentException if the maze has more than Integer.MAX_VALUE cells,
+     *         which is more than an array can hold
+     */
+    public DistanceField(Maze maze) throws IllegalArgumentException {
+        this.layout = maze.getLayout();
+        if (this.layout.getCellCount() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Maze has too many cells for a distance field: "
+                    + this.layout.getCellCount());
+        }
+        this.mazeX = maze.getMazeX();
+        this.distance = new int[Math.multiplyExact(this.mazeX, maze.getMazeY())];
+        Arrays.fill(this.distance, UNREACHABLE);
+
+        // Every move can be reversed, so searching from the end point finds the distance to
+        // the end point from every cell.
+        int[] queue = new int[this.distance.length];
+        int head = 0;
+        int tail = 0;
+        int end = maze.getEndY() * this.mazeX + maze.getEndX();
+        this.distance[end] = 0;
+        queue[tail++] = end;
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int direction = 0; direction < AutoNavigator.NUM_OF_MOVES; direction++) {
+                int next = maze.getNeighbour(cell, direction);
+                if (next >= 0 && this.distance[next] == UNREACHABLE) {
+                    this.distance[next] = this.distance[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of moves on the shortest path from a cell to the end point.
+     *
+     * @param x x-coordinate of the cell
+     * @param y y-coordinate of the cell
+     * @return number of moves to the end point, or UNREACHABLE if there is no path.
+     */
+    public int getDistance(int x, int y) {
+        return this.distance[y * this.mazeX + x];
+    }
+
+    /**
+     * Gets the direction of the first move on the shortest path from a cell to the end
+     * point. When more than one move is on a shortest path, the first in the order UP,
+     * DOWN, RIGHT, LEFT is chosen.
+     *
+     * @param x x-coordinate of the cell
+     * @param y y-coordinate of the cell
+     * @return one of AutoNavigator.UP, DOWN, RIGHT or LEFT, or -1 if the cell is the end
+     *         point or there is no path.
+     */
+    public int getNextMove(int x, int y) {
+        int cell = y * this.mazeX + x;
+        for (int direction = 0; direction < AutoNavigator.NUM_OF_MOVES; direction++) {
+            if (getNeighbour(cell, direction) >= 0) {
+                return direction;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the shortest path from a cell to the end point, following the same moves as
+     * getNextMove().
+     *
+     * @param x x-coordinate of the cell
+     * @param y y-coordinate of the cell
+     * @return the cell indices on the path, from the specified cell to the end point, or
+     *         an empty array if there is no path.
+     */
+    public int[] getRoute(int x, int y) {
+        int cell = y * this.mazeX + x;
+        if (this.distance[cell] == UNREACHABLE) {
+            return new int[0];
+        }
+
+        int[] route = new int[this.distance[cell] + 1];
+        route[0] = cell;
+        for (int i = 1; i < route.length; i++) {
+            int direction = getNextMove(cell % this.mazeX, cell / this.mazeX);
+            cell = getNeighbour(cell, direction);
+            route[i] = cell;
+        }
+        return route;
+    }
+
+    /**
+     * Gets the index of the cell next to a cell in the given direction if it is one move
+     * closer to the end point, or -1 if it is not or is outside the maze. Walls are never
+     * closer to the end point, so the maze itself is not needed.
+     */
+    private int getNeighbour(int cell, int direction) {
+        int next;
+        switch (direction) {
+            case AutoNavigator.UP -> next = cell - this.mazeX;
+            case AutoNavigator.DOWN -> next = cell + this.mazeX;
+            case AutoNavigator.RIGHT -> next = (cell + 1) % this.mazeX == 0 ? -1 : cell + 1;
+            default -> next = cell % this.mazeX == 0 ? -1 : cell - 1;
+        }
+        if (next < 0 || next >= this.distance.length || this.distance[cell] <= 0
+                || this.distance[next] != this.distance[cell] - 1) {
+            return -1;
+        }
+        return next;
+    }
+
+    /**
+     * Checks if the field is for a layout with the same size, walls and end point as the
+     * specified layout, which are all the field depends on.
+     */
+    private boolean isFor(MazeLayout other) {
+        if (this.layout == other) {
+            return true;
+        }
+        int mazeY = this.layout.getMazeY();
+        if (other.getMazeX() != this.mazeX || other.getMazeY() != mazeY
+                || other.getEndX() != this.layout.getEndX()
+                || other.getEndY() != this.layout.getEndY()) {
+            return false;
+        }
+        for (int y = 0; y < mazeY; y++) {
+            for (int x = 0; x < this.mazeX; x++) {
+                boolean wall = this.layout.getCell(x, y) == Maze.WALL;
+                if (wall != (other.getCell(x, y) == Maze.WALL)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hashes the size, walls and end point of a maze layout.
+     */
+    private static long hashLayout(MazeLayout layout) {
+        int mazeX = layout.getMazeX();
+        int mazeY = layout.getMazeY();
+        long hash = mix((((long) mazeY) << 32) | mazeX);
+        hash = mix(hash ^ ((((long) layout.getEndY()) << 32) | layout.getEndX()));
+
+        // Pack the walls into 64 cells at a time before mixing them into the hash.
+        long word = 0;
+        int bits = 0;
+        for (int y = 0; y < mazeY; y++) {
+            for (int x = 0; x < mazeX; x++) {
+                word = (word << 1) | (layout.getCell(x, y) == Maze.WALL ? 1 : 0);
+                if (++bits == Long.SIZE) {
+                    hash = mix(hash ^ word);
+                    word = 0;
+                    bits = 0;
+                }
+            }
+        }
+        return mix(hash ^ word);
+    }
+
+    /**
+     * Mixes the bits of a number so that every bit of the input affects every bit of the
+     * output.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+}
@@ -0,0 +1,460 @@
+package maze;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A class that finds the shortest path through the maze with a breadth-first search that
+ * keeps its frontier and the cells it has reached on disk instead of in memory, so it can
+ * solve mazes whose search would not fit in the heap, such as tiled mazes paged in from
+ * disk.
+ * <p>
+ * Each distance from the start point is a level of the search. The cells of each level are
+ * appended to a frontier file, followed by SEPARATOR, and the next level is made by reading
+ * the level back in order. Which cells have been reached is kept in a bitset in a
+ * memory-mapped file. Once the end point is reached, the path is recovered by reading the
+ * frontier file backwards, stepping each time to the first neighbour, in order of the moves,
+ * that is in the level before, which gives the same path as BreadthFirstSolver. The files
+ * are only ever read and written in order through fixed-size buffers, so the heap used does
+ * not grow with the size of the maze.
+ * </p>
+ */
+public class ExternalMemorySolver implements Solver {
+    /** The cell index written after the last cell of each level in the frontier file */
+    private static final long SEPARATOR = -1;
+
+    /** The size of each buffer the frontier and path files are read and written through */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /** The most bytes of the bitset mapped by a single buffer */
+    private static final long MAX_REGION_SIZE = 1L << 30;
+
+    /** The directory the frontier and bitset files are made in */
+    private final Path directory;
+
+    /**
+     * Constructor for a solver that makes its files in the default temporary directory.
+     */
+    public ExternalMemorySolver() {
+        this(Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Constructor for a solver that makes its files in the specified directory, which
+     * should have room for about 8 bytes per cell reached and 1 bit per cell of the maze.
+     *
+     * @param directory the directory to make the files in
+     */
+    public ExternalMemorySolver(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Searches outwards from the start point one distance at a time until the end point
+     * is reached, so the path found is always a shortest path.
+     *
+     * @param maze an instance of Maze containing all maze data and components
+     * @return the shortest path, along with the number of nodes expanded and the time taken.
+     * @throws IllegalArgumentException if the maze has too many cells for an int cell index,
+     *         in which case solve(MazeLayout, Path) must be used instead
+     * @throws UncheckedIOException if the files cannot be made, read or written
+     */
+    @Override
+    public SolveResult solve(Maze maze) throws IllegalArgumentException, UncheckedIOException {
+        long startTime = System.nanoTime();
+        if (maze.getLayout().getCellCount() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many cells for an int cell index");
+        }
+
+        try (FileChannel pathFile = openTemporary("maze-path-", ".bin")) {
+            long nodesExpanded = search(maze.getLayout(), pathFile);
+            int[] path = new int[(int) (pathFile.size() / Long.BYTES)];
+            CellReader reader = new CellReader(pathFile, 0);
+            for (int i = 0; i < path.length; i++) {
+                path[i] = (int) reader.next();
+            }
+            return new SolveResult(path, nodesExpanded, System.nanoTime() - startTime);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Searches a maze layout of any size for a shortest path, and writes the path to a file
+     * as the big-endian long cell index of each cell, which is y * mazeX + x, from the start
+     * point to the end point. The file is empty if there is no path.
+     *
+     * @param layout the walls, start point and end point of the maze
+     * @param pathFile the path of the file to write the path to
+     * @return number of moves in the path, or -1 if there is no path.
+     * @throws IOException if the files cannot be made, read or written
+     */
+    public long solve(MazeLayout layout, Path pathFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(pathFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            search(layout, channel);
+            return channel.size() / Long.BYTES - 1;
+        }
+    }
+
+    /**
+     * Searches the maze layout level by level and writes the path found to the path file.
+     *
+     * @return the number of nodes expanded
+     */
+    private long search(MazeLayout layout, FileChannel pathFile) throws IOException {
+        int mazeX = layout.getMazeX();
+        long start = (long) layout.getStartY() * mazeX + layout.getStartX();
+        long end = (long) layout.getEndY() * mazeX + layout.getEndX();
+
+        try (FileChannel frontier = openTemporary("maze-frontier-", ".bin");
+                FileChannel bitset = openTemporary("maze-visited-", ".bits")) {
+            VisitedSet visited = new VisitedSet(bitset, layout.getCellCount());
+            CellWriter writer = new CellWriter(frontier);
+            CellReader reader = new CellReader(frontier, 0);
+            visited.add(start);
+            writer.write(start);
+            writer.write(SEPARATOR);
+            writer.flush();
+
+            // Expand each level in the order it was written, appending the cells it reaches
+            // as the next level, until the end point is reached or a level reaches nothing.
+            long distance = start == end ? 0 : -1;
+            long level = 0;
+            long levelStart = 0;
+            long nextStart = writer.getPosition();
+            long nodesExpanded = 0;
+            while (distance < 0) {
+                reader.seek(levelStart);
+                long reached = 0;
+                for (long cell = reader.next(); cell != SEPARATOR && distance < 0;
+                        cell = reader.next()) {
+                    nodesExpanded++;
+                    for (int move = 0; move < AutoNavigator.NUM_OF_MOVES; move++) {
+                        long next = layout.getNeighbour(cell, move);
+                        if (next >= 0 && visited.add(next)) {
+                            writer.write(next);
+                            reached++;
+                            if (next == end) {
+                                distance = level + 1;
+                                break;
+                            }
+                        }
+                    }
+                }
+                if (reached == 0) {
+                    return nodesExpanded;
+                }
+                writer.write(SEPARATOR);
+                writer.flush();
+                levelStart = nextStart;
+                nextStart = writer.getPosition();
+                level++;
+            }
+
+            tracePath(layout, frontier, levelStart, end, distance, pathFile);
+            return nodesExpanded;
+        }
+    }
+
+    /**
+     * Writes the path to the end point by reading the levels before it backwards, from the
+     * level just before the end point to the start point, and stepping each time to the
+     * first neighbour, in order of the moves, that is in the level being read.
+     */
+    private static void tracePath(MazeLayout layout, FileChannel frontier, long endLevelStart,
+            long end, long distance, FileChannel pathFile) throws IOException {
+        ReverseCellReader reader = new ReverseCellReader(frontier, endLevelStart);
+        PathWriter path = new PathWriter(pathFile, distance + 1);
+        reader.previous();
+        long cell = end;
+        path.write(cell);
+        long[] neighbours = new long[AutoNavigator.NUM_OF_MOVES];
+        for (long level = distance - 1; level >= 0; level--) {
+            for (int move = 0; move < AutoNavigator.NUM_OF_MOVES; move++) {
+                neighbours[move] = layout.getNeighbour(cell, move);
+            }
+            int best = AutoNavigator.NUM_OF_MOVES;
+            for (long previous = reader.previous(); previous != SEPARATOR;
+                    previous = reader.previous()) {
+                for (int move = 0; move < best; move++) {
+                    if (neighbours[move] == previous) {
+                        best = move;
+                        break;
+                    }
+                }
+            }
+            cell = neighbours[best];
+            path.write(cell);
+        }
+        path.flush();
+    }
+
+    /**
+     * Makes a file in the directory that is deleted when its channel is closed, and opens
+     * it for reading and writing.
+     */
+    private FileChannel openTemporary(String prefix, String suffix) throws IOException {
+        Path file = Files.createTempFile(this.directory, prefix, suffix);
+        return FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /**
+     * A class that appends cell indices to the end of a file through a buffer.
+     */
+    private static class CellWriter {
+        /** The file to write to */
+        private final FileChannel channel;
+
+        /** The cell indices that have not been written yet */
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /** The position in the file the buffer is written at */
+        private long position;
+
+        /**
+         * Constructor for a writer that appends to the specified empty file.
+         *
+         * @param channel the file to write to
+         */
+        CellWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Adds a cell index to the buffer, writing the buffer out if it is full.
+         */
+        void write(long cell) throws IOException {
+            if (!this.buffer.hasRemaining()) {
+                flush();
+            }
+            this.buffer.putLong(cell);
+        }
+
+        /**
+         * Writes every cell index in the buffer to the file.
+         */
+        void flush() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.position += this.channel.write(this.buffer, this.position);
+            }
+            this.buffer.clear();
+        }
+
+        /**
+         * Gets the position in the file after the last cell index written, including any
+         * still in the buffer.
+         */
+        long getPosition() {
+            return this.position + this.buffer.position();
+        }
+    }
+
+    /**
+     * A class that reads cell indices in order through a buffer, from a position in a file
+     * to the end of the file.
+     */
+    private static class CellReader {
+        /** The file to read from */
+        private final FileChannel channel;
+
+        /** The cell indices that have been read but not returned yet */
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /** The position in the file the next buffer is read from */
+        private long position;
+
+        /**
+         * Constructor for a reader starting at the specified position.
+         *
+         * @param channel the file to read from
+         * @param position the position of the first cell index to read
+         */
+        CellReader(FileChannel channel, long position) {
+            this.channel = channel;
+            seek(position);
+        }
+
+        /**
+         * Moves the reader to a position, so the buffer can be used again to read another
+         * part of the file.
+         */
+        void seek(long position) {
+            this.position = position;
+            this.buffer.limit(0);
+        }
+
+        /**
+         * Gets the next cell index, reading the next buffer if needed.
+         */
+        long next() throws IOException {
+            if (this.buffer.remaining() < Long.BYTES) {
+                this.buffer.compact();
+                int read = this.channel.read(this.buffer, this.position);
+                this.position += Math.max(read, 0);
+                this.buffer.flip();
+                if (this.buffer.remaining() < Long.BYTES) {
+                    throw new IOException("Unexpected end of file");
+                }
+            }
+            return this.buffer.getLong();
+        }
+    }
+
+    /**
+     * A class that reads cell indices backwards through a buffer, from a position in a file
+     * to the start of the file.
+     */
+    private static class ReverseCellReader {
+        /** The file to read from */
+        private final FileChannel channel;
+
+        /** The cell indices that have been read, returned from the position backwards */
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /** The position in the file of the first cell index in the buffer */
+        private long position;
+
+        /**
+         * Constructor for a reader that returns the cell indices before the specified
+         * position.
+         *
+         * @param channel the file to read from
+         * @param position the position after the first cell index to read
+         */
+        ReverseCellReader(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        /**
+         * Gets the cell index before the last one returned, reading the buffer before it if
+         * needed, or SEPARATOR at the start of the file.
+         */
+        long previous() throws IOException {
+            if (this.buffer.position() == 0) {
+                if (this.position == 0) {
+                    return SEPARATOR;
+                }
+                int size = (int) Math.min(BUFFER_SIZE, this.position);
+                this.position -= size;
+                this.buffer.clear().limit(size);
+                while (this.buffer.hasRemaining()) {
+                    if (this.channel.read(this.buffer,
+                            this.position + this.buffer.position()) < 0) {
+                        throw new IOException("Unexpected end of file");
+                    }
+                }
+            }
+            this.buffer.position(this.buffer.position() - Long.BYTES);
+            return this.buffer.getLong(this.buffer.position());
+        }
+    }
+
+    /**
+     * A class that writes the cells of a path backwards, from the end point to the start
+     * point, so that the file holds them from the start point to the end point.
+     */
+    private static class PathWriter {
+        /** The file to write to */
+        private final FileChannel channel;
+
+        /** The cell indices that have not been written yet, filled from the end backwards */
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /** The position in the file of the end of the buffer */
+        private long position;
+
+        /**
+         * Constructor for a writer of a path with the specified number of cells.
+         *
+         * @param channel the file to write to
+         * @param cells the number of cells in the path
+         */
+        PathWriter(FileChannel channel, long cells) {
+            this.channel = channel;
+            this.position = cells * Long.BYTES;
+            this.buffer.position(BUFFER_SIZE);
+        }
+
+        /**
+         * Adds the cell index before the last one written to the buffer, writing the buffer
+         * out if it is full.
+         */
+        void write(long cell) throws IOException {
+            if (this.buffer.position() == 0) {
+                flush();
+            }
+            this.buffer.position(this.buffer.position() - Long.BYTES);
+            this.buffer.putLong(this.buffer.position(), cell);
+        }
+
+        /**
+         * Writes every cell index in the buffer to the file, before the ones already written.
+         */
+        void flush() throws IOException {
+            int start = this.buffer.position();
+            this.position -= BUFFER_SIZE - start;
+            long writeAt = this.position;
+            while (this.buffer.hasRemaining()) {
+                writeAt += this.channel.write(this.buffer, writeAt);
+            }
+            this.buffer.position(BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * A class that records which cells have been reached, with one bit per cell in a
+     * memory-mapped file.
+     */
+    private static class VisitedSet {
+        /** The buffers mapping the bitset, in order */
+        private final MappedByteBuffer[] regions;
+
+        /**
+         * Constructor which maps a bitset with a bit for each cell in the specified empty
+         * file, so that no cells have been reached.
+         *
+         * @param channel the empty file to keep the bitset in
+         * @param cells the number of cells in the maze
+         */
+        VisitedSet(FileChannel channel, long cells) throws IOException {
+            long size = (cells + Byte.SIZE - 1) / Byte.SIZE;
+            this.regions = new MappedByteBuffer[(int) ((size + MAX_REGION_SIZE - 1)
+                    / MAX_REGION_SIZE)];
+            for (int i = 0; i < this.regions.length; i++) {
+                long offset = i * MAX_REGION_SIZE;
+                this.regions[i] = channel.map(FileChannel.MapMode.READ_WRITE, offset,
+                        Math.min(MAX_REGION_SIZE, size - offset));
+            }
+        }
+
+        /**
+         * Records that a cell has been reached.
+         *
+         * @return true if the cell had not been reached before, else return false.
+         */
+        boolean add(long cell) {
+            long index = cell / Byte.SIZE;
+            MappedByteBuffer region = this.regions[(int) (index / MAX_REGION_SIZE)];
+            int offset = (int) (index % MAX_REGION_SIZE);
+            int bit = 1 << (cell % Byte.SIZE);
+            byte bits = region.get(offset);
+            if ((bits & bit) != 0) {
+                return false;
+            }
+            region.put(offset, (byte) (bits | bit));
+            return true;
+        }
+    }
+}
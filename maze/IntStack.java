@@ -0,0 +1,122 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * A class that represents a growable stack of ints, such as cell indices. The ints are kept
+ * in a single array, so pushing never allocates except when the array has to grow, and each
+ * int takes four bytes instead of a boxed object and a list node.
+ */
+public class IntStack {
+    /** The initial capacity when no capacity is specified */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /** The ints in the stack, from the bottom to the top */
+    private int[] elements;
+
+    /** The number of ints in the stack */
+    private int size;
+
+    /**
+     * Constructor for an empty stack with the default capacity.
+     */
+    public IntStack() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor for an empty stack which can hold the specified number of ints before it
+     * has to grow.
+     *
+     * @param capacity the initial capacity of the stack
+     */
+    public IntStack(int capacity) {
+        this.elements = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Pushes an int onto the top of the stack, doubling the capacity if the stack is full.
+     *
+     * @param element the int to push
+     */
+    public void push(int element) {
+        if (this.size == this.elements.length) {
+            this.elements = Arrays.copyOf(this.elements, this.size * 2);
+        }
+        this.elements[this.size++] = element;
+    }
+
+    /**
+     * Removes the int from the top of the stack.
+     *
+     * @return the int that was on top of the stack
+     * @throws IllegalStateException if the stack is empty
+     */
+    public int pop() throws IllegalStateException {
+        if (this.size == 0) {
+            throw new IllegalStateException("Stack is empty");
+        }
+        return this.elements[--this.size];
+    }
+
+    /**
+     * Gets the int on top of the stack without removing it.
+     *
+     * @return the int on top of the stack
+     * @throws IllegalStateException if the stack is empty
+     */
+    public int peek() throws IllegalStateException {
+        if (this.size == 0) {
+            throw new IllegalStateException("Stack is empty");
+        }
+        return this.elements[this.size - 1];
+    }
+
+    /**
+     * Gets the int at a position in the stack, counting from the bottom.
+     *
+     * @param index the position of the int, where 0 is the bottom of the stack
+     * @return the int at the position
+     * @throws IndexOutOfBoundsException if index is not a position in the stack
+     */
+    public int get(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return this.elements[index];
+    }
+
+    /**
+     * Gets the number of ints in the stack.
+     *
+     * @return number of ints in the stack
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Determines whether the stack is empty.
+     *
+     * @return true if the stack has no ints, else return false.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Removes every int from the stack, keeping its capacity.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Copies the ints in the stack into a new array.
+     *
+     * @return the ints from the bottom to the top of the stack
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(this.elements, this.size);
+    }
+}
@@ -1,20 +1,82 @@
 package maze;
 
 import elements.*;
+import metrics.Counter;
+import metrics.Metrics;
+
+import java.util.Arrays;
 
 /**
- * A class that represents the maze to navigate, containing MazeComponents
- * and a 2D array of the maze component coordinates.
+ * A class that represents a single run through a maze. The walls, start point and end point
+ * are kept in a MazeLayout, which can be shared by many runs, and each run keeps only an
+ * overlay of where its player has been. Each cell of the maze is a single byte code, and
+ * the MazeComponent for a cell is a shared instance looked up from its code.
+ * <p>
+ * The overlay is split into pages of PAGE_SIZE cells, and a page is only allocated the first
+ * time the player leaves a cell in it. A run that has moved costs 8 bytes for each page of
+ * the maze, PAGE_SIZE bytes for each page the player has been in, and 8 bytes for each cell
+ * the player has been to, so many runs can share a large layout. The pages are kept when
+ * the run is reset, so moving through cells of pages that have been allocated never
+ * allocates.
+ * </p>
  */
 public class Maze {
-    /** The length of the maze in y-axis */
-    private final int mazeY;
+    /** The cell code for a wall */
+    public static final byte WALL = 0;
+
+    /** The cell code for a path that has not been travelled to */
+    public static final byte PATH = 1;
+
+    /** The cell code for the end point */
+    public static final byte END_POINT = 2;
+
+    /** The cell code for the player's position */
+    public static final byte POSITION = 3;
+
+    /** The cell code for a path that the player has travelled to */
+    public static final byte TRAVERSED_PATH = 4;
+
+    /** The cell code for a path that the player has backtracked through */
+    public static final byte BACK_TRACKED_PATH = 5;
+
+    /** The number of bits in the index of a cell within its page of the overlay */
+    private static final int PAGE_BITS = 12;
+
+    /** The number of cells in each page of the overlay */
+    public static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    /** The initial capacity of the list of touched cells */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** The number of moves made by players in every maze */
+    private static final Counter MOVES = Metrics.counter("maze_player_moves_total",
+            "Moves made by players, both forward and backtracking.");
+
+    /** The shared instance of MazeComponent for each cell code, indexed by the code */
+    private static final MazeComponent[] COMPONENTS = {
+        new Wall(), new Path(), new EndPoint(), new Position(), new TraversedPath(),
+        new BackTrackedPath()
+    };
+
+    /** The walls, start point and end point of the maze, which may be shared with other runs */
+    private final MazeLayout layout;
 
     /** The length of te maze in x-axis */
     private final int mazeX;
 
-    /** A 2D array of all maze components */
-    private final MazeComponent[][] maze;
+    /**
+     * The pages of the cell code the player has left in every cell, either TRAVERSED_PATH,
+     * BACK_TRACKED_PATH or 0 if the player has not been there. The cell y * mazeX + x is in
+     * page (y * mazeX + x) / PAGE_SIZE, and a page is null until the player leaves a cell in
+     * it. The table is null until the player first moves.
+     */
+    private byte[][] pages;
+
+    /** The indices of the cells with a code in the overlay */
+    private long[] touched;
+
+    /** The number of cells with a code in the overlay */
+    private int touchedSize;
 
     /** The x coordinate of the player */
     private int playerX;
@@ -22,61 +84,119 @@ public class Maze {
     /** The y coordinate of the player */
     private int playerY;
 
-    /** The x coordinate of the end point */
-    private int endX;
+    /** The number of moves the player has made, which reset() does not clear */
+    private long moveCount;
 
-    /** The y coordinate of the end point */
-    private int endY;
-
-    /** The x coordinate of the start point */
-    private int startX;
-
-    /** The y coordinate of the end point */
-    private int startY;
+    /** The number of times the maze has been reset */
+    private long resetCount;
 
     /**
-     * The constructor for the Maze object which initialises the 2D array of maze components.
+     * The constructor for the Maze object which initialises the array of cell codes.
      *
      * @param mazeData a 2D array of the maze components from io.FileLoader.load()
+     * @throws IllegalArgumentException if mazeData contains an invalid character
+     */
+    public Maze(char[][] mazeData) throws IllegalArgumentException {
+        this(new MazeLayout(mazeData));
+    }
+
+    /**
+     * The constructor for a new run through a maze layout, with the player at the start
+     * point. The layout is not copied, so this takes constant time.
+     *
+     * @param layout the walls, start point and end point of the maze
      */
-    public Maze(char[][] mazeData) {
-        this.mazeY = mazeData.length;
-        this.mazeX = mazeData[0].length;
-        this.maze = new MazeComponent[mazeY][mazeX];
+    public Maze(MazeLayout layout) {
+        this.layout = layout;
+        this.mazeX = layout.getMazeX();
+        this.playerX = layout.getStartX();
+        this.playerY = layout.getStartY();
+    }
 
-        // Iterate through mazeData to create an object instance of each element to put into
-        // the 2D maze component array.
-        for (int y = 0; y < this.mazeY; y++) {
-            for (int x = 0; x < this.mazeX; x++) {
-                this.maze[y][x] = findElement(mazeData[y][x], x, y);
+    /**
+     * Makes a copy of the maze, sharing its layout and copying where the player has been.
+     *
+     * @return a copy of the maze
+     */
+    public Maze copy() {
+        Maze copy = new Maze(this.layout);
+        if (this.pages != null) {
+            copy.pages = new byte[this.pages.length][];
+            for (int page = 0; page < this.pages.length; page++) {
+                if (this.pages[page] != null) {
+                    copy.pages[page] = this.pages[page].clone();
+                }
             }
+            copy.touched = this.touched.clone();
+            copy.touchedSize = this.touchedSize;
         }
+        copy.playerX = this.playerX;
+        copy.playerY = this.playerY;
+        copy.moveCount = this.moveCount;
+        copy.resetCount = this.resetCount;
+        return copy;
     }
 
     /**
-     * Makes a new instance of MazeComponent based on 'element' to put into the 2D array of
-     * maze components.
+     * Moves the player back to the start point and forgets where the player has been, so
+     * the maze can be navigated again. This only takes time proportional to the number of
+     * cells the player has been to.
      */
-    private MazeComponent findElement(char element, int x, int y) {
-        MazeComponent mazeElement;
-        switch (element) {
-            case '#' -> mazeElement = new Wall();
-            case 'S' -> {
-                mazeElement = new Position();
-                this.playerX = x;
-                this.playerY = y;
-                this.startX = x;
-                this.startY = y;
-            }
-            case 'E' -> {
-                mazeElement = new EndPoint();
-                this.endX = x;
-                this.endY = y;
+    public void reset() {
+        for (int i = 0; i < this.touchedSize; i++) {
+            long cell = this.touched[i];
+            this.pages[(int) (cell >>> PAGE_BITS)][(int) cell & (PAGE_SIZE - 1)] = 0;
+        }
+        this.touchedSize = 0;
+        this.playerX = this.layout.getStartX();
+        this.playerY = this.layout.getStartY();
+        this.resetCount++;
+    }
+
+    /**
+     * Gets the walls, start point and end point of the maze, which never change as the maze
+     * is navigated.
+     *
+     * @return the layout of the maze
+     */
+    public MazeLayout getLayout() {
+        return this.layout;
+    }
+
+    /**
+     * Gets the walls, start point and end point of the maze in the same format as
+     * io.FileLoader.load(), ignoring where the player has been.
+     *
+     * @return a 2D array of the maze components
+     */
+    public char[][] toMazeData() {
+        return this.layout.toMazeData();
+    }
+
+    /**
+     * Records the cell code the player has left in a cell.
+     */
+    private void mark(int x, int y, byte code) {
+        if (this.pages == null) {
+            long cells = this.layout.getCellCount();
+            this.pages = new byte[Math.toIntExact((cells + PAGE_SIZE - 1) >>> PAGE_BITS)][];
+            this.touched = new long[INITIAL_CAPACITY];
+        }
+        long cell = (long) y * this.mazeX + x;
+        int index = (int) (cell >>> PAGE_BITS);
+        byte[] page = this.pages[index];
+        if (page == null) {
+            page = new byte[PAGE_SIZE];
+            this.pages[index] = page;
+        }
+        int offset = (int) cell & (PAGE_SIZE - 1);
+        if (page[offset] == 0) {
+            if (this.touchedSize == this.touched.length) {
+                this.touched = Arrays.copyOf(this.touched, this.touchedSize * 2);
             }
-            case ' ', '.' -> mazeElement = new Path();
-            default -> mazeElement = null;
+            this.touched[this.touchedSize++] = cell;
         }
-        return mazeElement;
+        page[offset] = code;
     }
 
     /**
@@ -88,16 +208,20 @@ public class Maze {
      */
     public void setPlayerCoordinates(int x, int y) {
         // Check if x and y are within maze length
-        if (x < 0 || x > this.mazeX || y < 0 || y > this.mazeY) {
+        if (x < 0 || x >= this.mazeX || y < 0 || y >= this.layout.getMazeY()) {
             return;
         }
 
         // Move player to coordinate and replace the previous path with TraversedPath
-        if (this.maze[y][x] instanceof Path || this.maze[y][x] instanceof EndPoint) {
-            maze[this.playerY][this.playerX] = new TraversedPath();
+        byte code = getCell(x, y);
+        if (code != WALL && code != POSITION) {
+            mark(this.playerX, this.playerY, TRAVERSED_PATH);
             this.playerX = x;
             this.playerY = y;
-            maze[this.playerY][this.playerX] = new Position();
+            this.moveCount++;
+            if (Metrics.ENABLED) {
+                MOVES.increment();
+            }
         }
     }
 
@@ -116,7 +240,7 @@ public class Maze {
      * @return length of maze in y-axis
      */
     public int getMazeY() {
-        return this.mazeY;
+        return this.layout.getMazeY();
     }
 
     /**
@@ -143,7 +267,7 @@ public class Maze {
      * @return x coordinate of start point.
      */
     public int getStartX() {
-        return startX;
+        return this.layout.getStartX();
     }
 
     /**
@@ -152,7 +276,25 @@ public class Maze {
      * @return y coordinate of start point
      */
     public int getStartY() {
-        return startY;
+        return this.layout.getStartY();
+    }
+
+    /**
+     * Gets the x coordinate of the end point.
+     *
+     * @return x coordinate of end point.
+     */
+    public int getEndX() {
+        return this.layout.getEndX();
+    }
+
+    /**
+     * Gets the y coordinate of the end point.
+     *
+     * @return y coordinate of end point
+     */
+    public int getEndY() {
+        return this.layout.getEndY();
     }
 
     /**
@@ -163,22 +305,124 @@ public class Maze {
      * @param y y-coordinate to move player to.
      */
     public void setPlayerBackTrack(int x, int y) {
-        maze[this.playerY][this.playerX] = new BackTrackedPath();
+        mark(this.playerX, this.playerY, BACK_TRACKED_PATH);
         this.playerX = x;
         this.playerY = y;
-        maze[this.playerY][this.playerX] = new Position();
+        this.moveCount++;
+        if (Metrics.ENABLED) {
+            MOVES.increment();
+        }
     }
 
     /**
-     * Gets the instance of MazeComponent from the specified coordinates in
-     * 2D array of maze components.
+     * Gets the number of moves the player has made, counting every move forward or
+     * backtracking, including those made before the maze was last reset. Each move only
+     * changes the cell the player left and the cell they moved to.
+     *
+     * @return the number of moves made
+     */
+    public long getMoveCount() {
+        return this.moveCount;
+    }
+
+    /**
+     * Gets the number of times the maze has been reset, which changes every cell the
+     * player has been to.
+     *
+     * @return the number of resets
+     */
+    public long getResetCount() {
+        return this.resetCount;
+    }
+
+    /**
+     * Gets the shared instance of MazeComponent for a cell code.
+     *
+     * @param code one of the cell codes, such as WALL or PATH
+     * @return the instance of MazeComponent for the cell code
+     */
+    public static MazeComponent getComponent(byte code) {
+        return COMPONENTS[code];
+    }
+
+    /**
+     * Gets the shared instance of MazeComponent for the cell at the specified coordinates.
      *
      * @param x x-coordinate of component
      * @param y y-coordinate of component
-     * @return the instance of MazeComponent from specified coordinates from 2D array
+     * @return the instance of MazeComponent for the cell at the specified coordinates
      */
     public MazeComponent getElement(int x, int y) {
-        return maze[y][x];
+        return COMPONENTS[getCell(x, y)];
+    }
+
+    /**
+     * Gets the cell code for the cell at the specified coordinates.
+     *
+     * @param x x-coordinate of the cell
+     * @param y y-coordinate of the cell
+     * @return one of the cell codes, such as WALL or PATH
+     */
+    public byte getCell(int x, int y) {
+        if (x == this.playerX && y == this.playerY) {
+            return POSITION;
+        }
+        if (this.pages != null) {
+            long cell = (long) y * this.mazeX + x;
+            byte[] page = this.pages[(int) (cell >>> PAGE_BITS)];
+            if (page != null) {
+                byte code = page[(int) cell & (PAGE_SIZE - 1)];
+                if (code != 0) {
+                    return code;
+                }
+            }
+        }
+        return this.layout.getCell(x, y);
+    }
+
+    /**
+     * Gets the index of the cell next to the specified cell in the given direction, where
+     * the index of a cell is y * getMazeX() + x.
+     *
+     * @param cell index of the cell to move from
+     * @param direction one of AutoNavigator.UP, DOWN, RIGHT or LEFT
+     * @return index of the neighbouring cell, or -1 if it is outside the maze or a wall.
+     */
+    public int getNeighbour(int cell, int direction) {
+        return this.layout.getNeighbour(cell, direction);
+    }
+
+    /**
+     * Gets the direction of the move from a cell to a neighbouring cell, which is the
+     * opposite of getNeighbour().
+     *
+     * @param from index of the cell to move from
+     * @param to index of the neighbouring cell to move to
+     * @return one of AutoNavigator.UP, DOWN, RIGHT or LEFT
+     */
+    public int getDirection(int from, int to) {
+        return this.layout.getDirection(from, to);
+    }
+
+    /**
+     * Gets the connected components of the open cells of the maze, which answer whether the
+     * end point can be reached from the start point without searching the maze.
+     *
+     * @return the connectivity index of the maze layout
+     * @throws IllegalArgumentException if the maze has more than Integer.MAX_VALUE cells
+     */
+    public ConnectivityIndex getConnectivity() throws IllegalArgumentException {
+        return this.layout.getConnectivity();
+    }
+
+    /**
+     * Gets the graph of the junctions, dead ends, start point and end point of the maze and
+     * the corridors between them.
+     *
+     * @return the corridor graph of the maze layout
+     */
+    public CorridorGraph getCorridorGraph() {
+        return this.layout.getCorridorGraph();
     }
 
     /**
@@ -187,7 +431,7 @@ public class Maze {
      * @return true if player has reached end point, else return false.
      */
     public boolean isGameOver() {
-        return this.playerX == endX && this.playerY == endY;
+        return this.playerX == this.layout.getEndX() && this.playerY == this.layout.getEndY();
     }
 
 }
@@ -0,0 +1,314 @@
+package maze;
+
+/**
+ * A class that represents the walls, start point and end point of a maze, which never change
+ * while the maze is navigated. A MazeLayout is immutable, so a single layout can be shared
+ * by any number of Maze objects navigating it at the same time.
+ * <p>
+ * The cell codes are kept in a CellStore, which is an array for mazes loaded into memory,
+ * or can page the cells in from disk for mazes larger than memory. Methods that use an int
+ * cell index, such as getNeighbour(int, int), only work for mazes of up to Integer.MAX_VALUE
+ * cells, while getCell(x, y) and the methods that use a long cell index work for mazes of
+ * any size.
+ * </p>
+ */
+public class MazeLayout {
+    /** The change in x-coordinate for each move, indexed by AutoNavigator.UP, DOWN, etc. */
+    private static final int[] MOVE_X = {0, 0, 1, -1};
+
+    /** The change in y-coordinate for each move, indexed by AutoNavigator.UP, DOWN, etc. */
+    private static final int[] MOVE_Y = {-1, 1, 0, 0};
+
+    /** The length of the maze in y-axis */
+    private final int mazeY;
+
+    /** The length of the maze in x-axis */
+    private final int mazeX;
+
+    /** The cell code of every cell, either WALL, PATH or END_POINT, indexed by y * mazeX + x */
+    private final CellStore cells;
+
+    /** The x coordinate of the end point */
+    private int endX;
+
+    /** The y coordinate of the end point */
+    private int endY;
+
+    /** The x coordinate of the start point */
+    private int startX;
+
+    /** The y coordinate of the start point */
+    private int startY;
+
+    /** The components of the open cells, or null until they are first asked for */
+    private volatile ConnectivityIndex connectivity;
+
+    /** The graph of junctions and corridors, or null until it is first asked for */
+    private volatile CorridorGraph corridorGraph;
+
+    /**
+     * The constructor for the MazeLayout object which initialises the array of cell codes.
+     *
+     * @param mazeData a 2D array of the maze components from io.FileLoader.load()
+     * @throws IllegalArgumentException if mazeData contains an invalid character
+     */
+    public MazeLayout(char[][] mazeData) throws IllegalArgumentException {
+        this.mazeY = mazeData.length;
+        this.mazeX = mazeData[0].length;
+        byte[] codes = new byte[this.mazeY * this.mazeX];
+
+        // Iterate through mazeData to find the code of each element to put into the array
+        // of cell codes.
+        for (int y = 0; y < this.mazeY; y++) {
+            for (int x = 0; x < this.mazeX; x++) {
+                codes[y * this.mazeX + x] = findElement(mazeData[y][x], x, y);
+            }
+        }
+        this.cells = new ArrayCellStore(this.mazeY, this.mazeX, codes);
+    }
+
+    /**
+     * The constructor for a MazeLayout whose cell codes are kept in the specified store,
+     * such as one that pages them in from disk.
+     *
+     * @param cells the cell codes of the maze, where the start point is a Maze.PATH
+     * @param startX x coordinate of the start point
+     * @param startY y coordinate of the start point
+     * @param endX x coordinate of the end point
+     * @param endY y coordinate of the end point
+     */
+    public MazeLayout(CellStore cells, int startX, int startY, int endX, int endY) {
+        this.cells = cells;
+        this.mazeY = cells.getMazeY();
+        this.mazeX = cells.getMazeX();
+        this.startX = startX;
+        this.startY = startY;
+        this.endX = endX;
+        this.endY = endY;
+    }
+
+    /**
+     * Finds the cell code based on 'element' to put into the array of cell codes.
+     */
+    private byte findElement(char element, int x, int y) throws IllegalArgumentException {
+        byte code;
+        switch (element) {
+            case '#' -> code = Maze.WALL;
+            case 'S' -> {
+                code = Maze.PATH;
+                this.startX = x;
+                this.startY = y;
+            }
+            case 'E' -> {
+                code = Maze.END_POINT;
+                this.endX = x;
+                this.endY = y;
+            }
+            case ' ', '.' -> code = Maze.PATH;
+            default -> throw new IllegalArgumentException();
+        }
+        return code;
+    }
+
+    /**
+     * Gets the length of the maze in x-axis.
+     *
+     * @return length of maze in x-axis
+     */
+    public int getMazeX() {
+        return this.mazeX;
+    }
+
+    /**
+     * Gets the length of maze in y-axis
+     *
+     * @return length of maze in y-axis
+     */
+    public int getMazeY() {
+        return this.mazeY;
+    }
+
+    /**
+     * Gets the x coordinate of the start point.
+     *
+     * @return x coordinate of start point.
+     */
+    public int getStartX() {
+        return this.startX;
+    }
+
+    /**
+     * Gets the y coordinate of the start point.
+     *
+     * @return y coordinate of start point
+     */
+    public int getStartY() {
+        return this.startY;
+    }
+
+    /**
+     * Gets the x coordinate of the end point.
+     *
+     * @return x coordinate of end point.
+     */
+    public int getEndX() {
+        return this.endX;
+    }
+
+    /**
+     * Gets the y coordinate of the end point.
+     *
+     * @return y coordinate of end point
+     */
+    public int getEndY() {
+        return this.endY;
+    }
+
+    /**
+     * Gets the cell code for a cell, ignoring the player.
+     *
+     * @param cell index of the cell, which is y * getMazeX() + x
+     * @return Maze.WALL, Maze.PATH or Maze.END_POINT
+     */
+    public byte getCell(int cell) {
+        return this.cells.getCell(cell);
+    }
+
+    /**
+     * Gets the cell code for the cell at the specified coordinates, ignoring the player.
+     *
+     * @param x x-coordinate of the cell
+     * @param y y-coordinate of the cell
+     * @return Maze.WALL, Maze.PATH or Maze.END_POINT
+     */
+    public byte getCell(int x, int y) {
+        return this.cells.getCell(x, y);
+    }
+
+    /**
+     * Gets the number of cells in the maze, which may be more than fit in an int.
+     *
+     * @return number of cells
+     */
+    public long getCellCount() {
+        return (long) this.mazeX * this.mazeY;
+    }
+
+    /**
+     * Gets the index of the cell next to the specified cell in the given direction, where
+     * the index of a cell is y * getMazeX() + x.
+     *
+     * @param cell index of the cell to move from
+     * @param direction one of AutoNavigator.UP, DOWN, RIGHT or LEFT
+     * @return index of the neighbouring cell, or -1 if it is outside the maze or a wall.
+     */
+    public int getNeighbour(int cell, int direction) {
+        int x = cell % this.mazeX + MOVE_X[direction];
+        int y = cell / this.mazeX + MOVE_Y[direction];
+
+        if (x < 0 || x >= this.mazeX || y < 0 || y >= this.mazeY
+                || this.cells.getCell(x, y) == Maze.WALL) {
+            return -1;
+        }
+        return y * this.mazeX + x;
+    }
+
+    /**
+     * Gets the index of the cell next to the specified cell in the given direction, for
+     * mazes with too many cells for an int index.
+     *
+     * @param cell index of the cell to move from, which is y * getMazeX() + x
+     * @param direction one of AutoNavigator.UP, DOWN, RIGHT or LEFT
+     * @return index of the neighbouring cell, or -1 if it is outside the maze or a wall.
+     */
+    public long getNeighbour(long cell, int direction) {
+        int x = (int) (cell % this.mazeX) + MOVE_X[direction];
+        int y = (int) (cell / this.mazeX) + MOVE_Y[direction];
+
+        if (x < 0 || x >= this.mazeX || y < 0 || y >= this.mazeY
+                || this.cells.getCell(x, y) == Maze.WALL) {
+            return -1;
+        }
+        return (long) y * this.mazeX + x;
+    }
+
+    /**
+     * Gets the direction of the move from a cell to a neighbouring cell, which is the
+     * opposite of getNeighbour(). Vertical moves are checked first, as a maze one cell wide
+     * has no horizontal moves.
+     *
+     * @param from index of the cell to move from
+     * @param to index of the neighbouring cell to move to
+     * @return one of AutoNavigator.UP, DOWN, RIGHT or LEFT
+     */
+    public int getDirection(int from, int to) {
+        if (to == from - this.mazeX) {
+            return AutoNavigator.UP;
+        } else if (to == from + this.mazeX) {
+            return AutoNavigator.DOWN;
+        } else if (to == from + 1) {
+            return AutoNavigator.RIGHT;
+        }
+        return AutoNavigator.LEFT;
+    }
+
+    /**
+     * Gets the connected components of the open cells of the maze, labelling them the first
+     * time they are asked for. The index is shared by every run through this layout.
+     *
+     * @return the connectivity index of the maze
+     * @throws IllegalArgumentException if the maze has more than Integer.MAX_VALUE cells
+     */
+    public ConnectivityIndex getConnectivity() throws IllegalArgumentException {
+        ConnectivityIndex index = this.connectivity;
+        if (index == null) {
+            synchronized (this) {
+                index = this.connectivity;
+                if (index == null) {
+                    index = new ConnectivityIndex(this);
+                    this.connectivity = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Gets the graph of the junctions, dead ends, start point and end point of the maze and
+     * the corridors between them, building it the first time it is asked for. The graph is
+     * shared by every run through this layout.
+     *
+     * @return the corridor graph of the maze
+     */
+    public CorridorGraph getCorridorGraph() {
+        CorridorGraph graph = this.corridorGraph;
+        if (graph == null) {
+            synchronized (this) {
+                graph = this.corridorGraph;
+                if (graph == null) {
+                    graph = new CorridorGraph(this);
+                    this.corridorGraph = graph;
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Gets the walls, start point and end point of the maze in the same format as
+     * io.FileLoader.load().
+     *
+     * @return a 2D array of the maze components
+     */
+    public char[][] toMazeData() {
+        char[][] mazeData = new char[this.mazeY][this.mazeX];
+        for (int y = 0; y < this.mazeY; y++) {
+            for (int x = 0; x < this.mazeX; x++) {
+                mazeData[y][x] = this.cells.getCell(x, y) == Maze.WALL ? '#' : ' ';
+            }
+        }
+        mazeData[this.startY][this.startX] = 'S';
+        mazeData[this.endY][this.endX] = 'E';
+        return mazeData;
+    }
+}
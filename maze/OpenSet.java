@@ -0,0 +1,64 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of cells or graph nodes ordered by their estimated total path length,
+ * used by the A* searches. A cell may be pushed more than once, so callers must skip cells
+ * that have already been closed.
+ */
+class OpenSet {
+    /** The initial capacity of the heap */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** The heap entries, with the estimate in the high 32 bits and cell in the low 32 */
+    private long[] heap = new long[INITIAL_CAPACITY];
+
+    /** The number of entries in the heap */
+    private int size;
+
+    /**
+     * Determines whether the heap has no entries.
+     */
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Adds a cell to the heap with the specified estimate.
+     */
+    void push(int estimate, int cell) {
+        if (this.size == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, this.size * 2);
+        }
+        long entry = ((long) estimate << 32) | cell;
+        int i = this.size++;
+        while (i > 0 && this.heap[(i - 1) / 2] > entry) {
+            this.heap[i] = this.heap[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        this.heap[i] = entry;
+    }
+
+    /**
+     * Removes the cell with the lowest estimate from the heap.
+     */
+    int pop() {
+        int cell = (int) this.heap[0];
+        long last = this.heap[--this.size];
+        int i = 0;
+        while (2 * i + 1 < this.size) {
+            int child = 2 * i + 1;
+            if (child + 1 < this.size && this.heap[child + 1] < this.heap[child]) {
+                child++;
+            }
+            if (this.heap[child] >= last) {
+                break;
+            }
+            this.heap[i] = this.heap[child];
+            i = child;
+        }
+        this.heap[i] = last;
+        return cell;
+    }
+}
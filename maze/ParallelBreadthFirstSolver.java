@@ -0,0 +1,183 @@
+package maze;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A class that finds the shortest path through the maze with a breadth-first search that
+ * expands each distance from the start point in parallel. The frontier of cells at one
+ * distance is split between the threads of a ForkJoinPool, and cells are claimed in an
+ * atomic bitset so each one is only added to the next frontier once. The path found is
+ * the same as the one found by BreadthFirstSolver.
+ */
+public class ParallelBreadthFirstSolver implements Solver {
+    /** The number of frontier cells below which a task expands them itself */
+    private static final int THRESHOLD = 4096;
+
+    /** The number of bits in each word of the visited bitset */
+    private static final int BITS_PER_WORD = 64;
+
+    /** The pool of threads the frontier is expanded on */
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor which expands the frontier on the common ForkJoinPool.
+     */
+    public ParallelBreadthFirstSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor which expands the frontier on the specified pool.
+     *
+     * @param pool the pool of threads the frontier is expanded on
+     */
+    public ParallelBreadthFirstSolver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Searches outwards from the start point one whole distance at a time, in parallel,
+     * until the end point is reached.
+     *
+     * @param maze an instance of Maze containing all maze data and components, which must
+     *             not be changed while it is being solved
+     * @return the shortest path, along with the number of nodes expanded and the time taken.
+     */
+    @Override
+    public SolveResult solve(Maze maze) {
+        long startTime = System.nanoTime();
+        int mazeX = maze.getMazeX();
+        int cells = mazeX * maze.getMazeY();
+        int start = maze.getStartY() * mazeX + maze.getStartX();
+        int end = maze.getEndY() * mazeX + maze.getEndX();
+
+        int[] distance = new int[cells];
+        Arrays.fill(distance, -1);
+        AtomicLongArray visited =
+                new AtomicLongArray((cells + BITS_PER_WORD - 1) / BITS_PER_WORD);
+
+        claim(visited, start);
+        distance[start] = 0;
+        int[] frontier = {start};
+        int size = 1;
+        long nodesExpanded = 0;
+        for (int level = 1; size > 0 && distance[end] < 0; level++) {
+            // Each cell has at most four neighbours, so the next frontier is at most four
+            // times as big as this one.
+            int[] next = new int[(int) Math.min(cells, 4L * size)];
+            AtomicInteger nextSize = new AtomicInteger();
+            this.pool.invoke(new Expand(maze, frontier, 0, size, level, distance, visited,
+                    next, nextSize));
+            nodesExpanded += size;
+            frontier = next;
+            size = nextSize.get();
+        }
+
+        int[] path = distance[end] < 0
+                ? new int[0] : BreadthFirstSolver.tracePath(maze, distance, end);
+        return new SolveResult(path, nodesExpanded, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Sets the bit for the specified cell in the visited bitset.
+     *
+     * @return true if this call set the bit, or false if it was already set.
+     */
+    private static boolean claim(AtomicLongArray visited, int cell) {
+        int word = cell / BITS_PER_WORD;
+        long bit = 1L << (cell % BITS_PER_WORD);
+        long old;
+        do {
+            old = visited.get(word);
+            if ((old & bit) != 0) {
+                return false;
+            }
+        } while (!visited.compareAndSet(word, old, old | bit));
+        return true;
+    }
+
+    /**
+     * A task that expands a range of the frontier, splitting it in half until it is small
+     * enough to expand directly.
+     */
+    private static class Expand extends RecursiveAction {
+        /** The version of the serialized form, which RecursiveAction requires */
+        private static final long serialVersionUID = 1L;
+
+        /** The Maze object being solved */
+        private final Maze maze;
+
+        /** The cells at the current distance */
+        private final int[] frontier;
+
+        /** The first index of the range of the frontier to expand */
+        private final int low;
+
+        /** The index after the last index of the range of the frontier to expand */
+        private final int high;
+
+        /** The distance of the cells being added to the next frontier */
+        private final int level;
+
+        /** The distance of each cell from the start point, or -1 if not reached */
+        private final int[] distance;
+
+        /** The bitset of cells that have been reached */
+        private final AtomicLongArray visited;
+
+        /** The cells at the next distance */
+        private final int[] next;
+
+        /** The number of cells in next */
+        private final AtomicInteger nextSize;
+
+        /**
+         * Constructor which initialises the range of the frontier and the shared state.
+         */
+        Expand(Maze maze, int[] frontier, int low, int high, int level, int[] distance,
+                AtomicLongArray visited, int[] next, AtomicInteger nextSize) {
+            this.maze = maze;
+            this.frontier = frontier;
+            this.low = low;
+            this.high = high;
+            this.level = level;
+            this.distance = distance;
+            this.visited = visited;
+            this.next = next;
+            this.nextSize = nextSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.high - this.low > THRESHOLD) {
+                int middle = (this.low + this.high) >>> 1;
+                invokeAll(new Expand(this.maze, this.frontier, this.low, middle, this.level,
+                                this.distance, this.visited, this.next, this.nextSize),
+                        new Expand(this.maze, this.frontier, middle, this.high, this.level,
+                                this.distance, this.visited, this.next, this.nextSize));
+                return;
+            }
+
+            // Collect the newly reached cells locally, then copy them into the next frontier
+            // with a single reservation.
+            int[] found = new int[4 * (this.high - this.low)];
+            int count = 0;
+            for (int i = this.low; i < this.high; i++) {
+                int cell = this.frontier[i];
+                for (int move = 0; move < AutoNavigator.NUM_OF_MOVES; move++) {
+                    int neighbour = this.maze.getNeighbour(cell, move);
+                    if (neighbour >= 0 && claim(this.visited, neighbour)) {
+                        this.distance[neighbour] = this.level;
+                        found[count++] = neighbour;
+                    }
+                }
+            }
+            int offset = this.nextSize.getAndAdd(count);
+            System.arraycopy(found, 0, this.next, offset, count);
+        }
+    }
+}
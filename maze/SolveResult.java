@@ -0,0 +1,75 @@
+package maze;
+
+/**
+ * A class that holds the path found by a Solver and how much work it took to find it.
+ */
+public class SolveResult {
+    /** The cell indices of the path from the start point to the end point */
+    private final int[] path;
+
+    /** The number of cells the solver expanded while searching */
+    private final long nodesExpanded;
+
+    /** The time the solver took in nanoseconds */
+    private final long elapsedNanos;
+
+    /**
+     * Constructor which initialises the path and the solver's statistics.
+     *
+     * @param path cell indices from start point to end point, or an empty array if the
+     *             end point could not be reached.
+     * @param nodesExpanded number of cells expanded while searching
+     * @param elapsedNanos time taken to search in nanoseconds
+     */
+    public SolveResult(int[] path, long nodesExpanded, long elapsedNanos) {
+        this.path = path;
+        this.nodesExpanded = nodesExpanded;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Determines whether a path from the start point to the end point was found.
+     *
+     * @return true if a path was found, else return false.
+     */
+    public boolean isSolvable() {
+        return this.path.length > 0;
+    }
+
+    /**
+     * Gets the cell indices of the path, where the index of a cell is y * getMazeX() + x.
+     * The first cell is the start point and the last cell is the end point.
+     *
+     * @return cell indices of the path, or an empty array if there is no path.
+     */
+    public int[] getPath() {
+        return this.path;
+    }
+
+    /**
+     * Gets the number of moves needed to follow the path.
+     *
+     * @return number of moves in the path, or -1 if there is no path.
+     */
+    public int getPathLength() {
+        return this.path.length - 1;
+    }
+
+    /**
+     * Gets the number of cells the solver expanded while searching.
+     *
+     * @return number of cells expanded.
+     */
+    public long getNodesExpanded() {
+        return this.nodesExpanded;
+    }
+
+    /**
+     * Gets the time the solver took to search the maze.
+     *
+     * @return time taken in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+}
@@ -0,0 +1,15 @@
+package maze;
+
+/**
+ * An interface for algorithms that find a path from the start point to the end point of
+ * a maze without moving the player or changing any of the maze components.
+ */
+public interface Solver {
+    /**
+     * Searches the maze for a path from the start point to the end point.
+     *
+     * @param maze an instance of Maze containing all maze data and components
+     * @return the path found, along with the number of nodes expanded and the time taken.
+     */
+    SolveResult solve(Maze maze);
+}
@@ -0,0 +1,187 @@
+package maze;
+
+import metrics.Counter;
+import metrics.Metrics;
+
+import java.util.BitSet;
+
+/**
+ * A class that navigates the maze with an iterative depth-first search. It keeps its own
+ * stack of cells instead of recursing, so it can solve mazes of any size, and it does not
+ * display anything or sleep, so it can be used headless or driven one step at a time.
+ * <p>
+ * The stack holds the path from the start point to the player as packed cell indices, so the
+ * parent of each cell on the path is the cell below it in the stack, and the path never has
+ * to be reconstructed from the cells themselves. Only the next direction to try from the top
+ * cell is kept: when the engine moves back to a cell, the direction it last tried from there
+ * is the direction of the cell it moved back from.
+ * </p>
+ * <p>
+ * Each engine marks the cells it has visited in a bitset of the whole maze, which takes one
+ * bit per cell, or about 12.5 MB for a maze of 10001 by 10001 cells, as soon as it is made.
+ * </p>
+ */
+public class SolverEngine {
+    /** The initial capacity of the cell stack */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** The order the engine tries moves in when no order is specified */
+    private static final int[] DEFAULT_ORDER = {
+        AutoNavigator.UP, AutoNavigator.DOWN, AutoNavigator.RIGHT, AutoNavigator.LEFT
+    };
+
+    /** The number of cells moved forward into by every engine */
+    private static final Counter NODES_EXPANDED = Metrics.counter(
+            "solver_nodes_expanded_total", "Cells the solver moved forward into.");
+
+    /** The number of moves back towards a fork made by every engine */
+    private static final Counter BACK_TRACK_STEPS = Metrics.counter(
+            "solver_backtrack_steps_total", "Moves the solver made back towards a fork.");
+
+    /** The Maze object containing the 2D array of MazeComponent to navigate */
+    private final Maze maze;
+
+    /** The length of the maze in x-axis, used to pack coordinates into a cell index */
+    private final int mazeX;
+
+    /** The directions to try from each cell, in order */
+    private final int[] order;
+
+    /** The index in the order of each direction, indexed by AutoNavigator.UP, DOWN, etc. */
+    private final int[] orderIndex;
+
+    /** The cells visited by the engine, indexed by y * mazeX + x */
+    private final BitSet visited;
+
+    /** A stack of the cell indices on the current path from the start point */
+    private final IntStack stack;
+
+    /** The index in the order of the next direction to try from the cell on top of the stack */
+    private int direction;
+
+    /** The number of cells the engine has moved forward into */
+    private long nodesExpanded;
+
+    /** The number of moves the engine has made back towards a fork in the path */
+    private long backTrackSteps;
+
+    /**
+     * Constructor which initialises the engine at the player's current position.
+     *
+     * @param maze an instance of Maze containing all maze data and components
+     */
+    public SolverEngine(Maze maze) {
+        this(maze, DEFAULT_ORDER);
+    }
+
+    /**
+     * Constructor which initialises the engine at the player's current position, trying
+     * moves from each cell in the specified order.
+     *
+     * @param maze an instance of Maze containing all maze data and components
+     * @param order each of AutoNavigator.UP, DOWN, RIGHT and LEFT once, in the order to try
+     *              them
+     */
+    public SolverEngine(Maze maze, int[] order) {
+        this.maze = maze;
+        this.order = order.clone();
+        this.orderIndex = new int[AutoNavigator.NUM_OF_MOVES];
+        for (int i = 0; i < this.order.length; i++) {
+            this.orderIndex[this.order[i]] = i;
+        }
+        this.mazeX = maze.getMazeX();
+        this.visited = new BitSet(this.mazeX * maze.getMazeY());
+        this.stack = new IntStack(INITIAL_CAPACITY);
+
+        int start = maze.getPlayerY() * this.mazeX + maze.getPlayerX();
+        this.visited.set(start);
+        this.stack.push(start);
+    }
+
+    /**
+     * Makes a single move in the maze, either forward into an unvisited path or back
+     * towards the last fork in the path.
+     *
+     * @return true if the player was moved, or false if the exit was found or every
+     *         reachable path has been visited.
+     */
+    public boolean step() {
+        while (!this.stack.isEmpty()) {
+            if (this.maze.isGameOver()) {
+                return false;
+            }
+
+            // Every direction from this cell has been tried, so move back to previous cell.
+            if (this.direction == AutoNavigator.NUM_OF_MOVES) {
+                int cell = this.stack.pop();
+                if (this.stack.isEmpty()) {
+                    return false;
+                }
+                int previous = this.stack.peek();
+                this.direction = this.orderIndex[this.maze.getDirection(previous, cell)] + 1;
+                this.maze.setPlayerBackTrack(previous % this.mazeX, previous / this.mazeX);
+                this.backTrackSteps++;
+                if (Metrics.ENABLED) {
+                    BACK_TRACK_STEPS.increment();
+                }
+                return true;
+            }
+            // Check if next cell is a valid path that has not been visited.
+            int next = this.maze.getNeighbour(this.stack.peek(), this.order[this.direction++]);
+            if (next < 0 || this.visited.get(next)) {
+                continue;
+            }
+
+            this.visited.set(next);
+            this.stack.push(next);
+            this.direction = 0;
+            this.maze.setPlayerCoordinates(next % this.mazeX, next / this.mazeX);
+            this.nodesExpanded++;
+            if (Metrics.ENABLED) {
+                NODES_EXPANDED.increment();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Navigates the maze until the exit is found or every reachable path has been visited.
+     *
+     * @return true if the exit was found, else return false.
+     */
+    public boolean run() {
+        while (step()) {
+            // Keep moving until there are no moves left.
+        }
+        return this.maze.isGameOver();
+    }
+
+    /**
+     * Gets the path from the start point to the player, without the paths the engine has
+     * backtracked out of.
+     *
+     * @return cell indices of the path, which are y * mazeX + x, starting at the start point.
+     */
+    public int[] getPath() {
+        return this.stack.toArray();
+    }
+
+    /**
+     * Gets the number of cells the engine has moved forward into.
+     *
+     * @return number of forward moves made.
+     */
+    public long getNodesExpanded() {
+        return this.nodesExpanded;
+    }
+
+    /**
+     * Gets the number of moves the engine has made back towards a fork in the path.
+     *
+     * @return number of backtracking moves made.
+     */
+    public long getBackTrackSteps() {
+        return this.backTrackSteps;
+    }
+}
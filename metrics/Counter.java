@@ -0,0 +1,72 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A class that counts events, such as moves or bytes written. Counting is safe from any
+ * number of threads at once and does not make threads wait for each other.
+ */
+public class Counter {
+    /** The name of the counter when it is exported */
+    private final String name;
+
+    /** A description of what the counter counts */
+    private final String help;
+
+    /** The count so far */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Constructor for a counter with the specified name.
+     *
+     * @param name the name of the counter when it is exported
+     * @param help a description of what the counter counts
+     */
+    Counter(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    /**
+     * Adds one to the count.
+     */
+    public void increment() {
+        this.count.increment();
+    }
+
+    /**
+     * Adds an amount to the count.
+     *
+     * @param amount the amount to add
+     */
+    public void add(long amount) {
+        this.count.add(amount);
+    }
+
+    /**
+     * Gets the count so far.
+     *
+     * @return the count
+     */
+    public long get() {
+        return this.count.sum();
+    }
+
+    /**
+     * Gets the name of the counter when it is exported.
+     *
+     * @return name of the counter
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Gets a description of what the counter counts.
+     *
+     * @return description of the counter
+     */
+    public String getHelp() {
+        return this.help;
+    }
+}
@@ -0,0 +1,177 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A class that records durations in nanoseconds and estimates their percentiles. Like an
+ * HDR histogram, it counts durations in buckets whose width grows with the duration: every
+ * power of two is split into SUB_BUCKETS buckets, so any percentile is within about 12.5%
+ * of the real value while the whole histogram is a fixed array of a few hundred counts.
+ * Recording is safe from any number of threads at once and never blocks.
+ */
+public class Histogram {
+    /** The number of bits of each duration used to choose a bucket within a power of two */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /** The number of buckets for each power of two */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** The number of buckets, enough for any positive long */
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    /** The name of the histogram when it is exported */
+    private final String name;
+
+    /** A description of what the histogram records */
+    private final String help;
+
+    /** The number of durations recorded in each bucket */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    /** The number of durations recorded */
+    private final LongAdder count = new LongAdder();
+
+    /** The sum of the durations recorded */
+    private final LongAdder sum = new LongAdder();
+
+    /** The longest duration recorded */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Constructor for a histogram with the specified name.
+     *
+     * @param name the name of the histogram when it is exported
+     * @param help a description of what the histogram records
+     */
+    Histogram(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        nanos = Math.max(nanos, 0);
+        this.buckets.incrementAndGet(getBucket(nanos));
+        this.count.increment();
+        this.sum.add(nanos);
+        if (nanos > this.max.get()) {
+            this.max.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    /**
+     * Records the time since the specified start time.
+     *
+     * @param startNanos the start time from System.nanoTime()
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Estimates a percentile of the durations recorded, as the upper bound of the bucket
+     * the percentile falls in, but never more than the longest duration.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the estimated percentile in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile) {
+        long total = 0;
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(getUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Gets the number of durations recorded.
+     *
+     * @return number of durations
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Gets the sum of the durations recorded.
+     *
+     * @return sum in nanoseconds
+     */
+    public long getSum() {
+        return this.sum.sum();
+    }
+
+    /**
+     * Gets the longest duration recorded.
+     *
+     * @return longest duration in nanoseconds
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Gets the name of the histogram when it is exported.
+     *
+     * @return name of the histogram
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Gets a description of what the histogram records.
+     *
+     * @return description of the histogram
+     */
+    public String getHelp() {
+        return this.help;
+    }
+
+    /**
+     * Gets the bucket of a duration. Durations below SUB_BUCKETS each have their own bucket,
+     * and larger durations are split by their highest set bit and the SUB_BUCKET_BITS bits
+     * after it.
+     */
+    private static int getBucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Gets the largest duration counted in a bucket.
+     */
+    private static long getUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket / SUB_BUCKETS) + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        long lower = (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,211 @@
+package metrics;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A class that holds every counter and histogram of the game, and exports them as a JSON
+ * snapshot or in the Prometheus text format.
+ * <p>
+ * Metrics are only recorded when the game is run with -Dmaze.metrics=true. Every recording
+ * is guarded by ENABLED, which is a static final field, so when metrics are disabled the
+ * compiler removes the guarded code and recording costs nothing. When metrics are enabled,
+ * the JSON snapshot is written at exit to the file named by -Dmaze.metrics.json and the
+ * Prometheus text to the file named by -Dmaze.metrics.prometheus, if they are given.
+ * </p>
+ */
+public class Metrics {
+    /** Whether metrics are recorded */
+    public static final boolean ENABLED = Boolean.getBoolean("maze.metrics");
+
+    /** The system property naming the file to write the JSON snapshot to at exit */
+    public static final String JSON_PROPERTY = "maze.metrics.json";
+
+    /** The system property naming the file to write the Prometheus text to at exit */
+    public static final String PROMETHEUS_PROPERTY = "maze.metrics.prometheus";
+
+    /** The percentiles of each histogram that are exported */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    /** The number of nanoseconds in a second */
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    /** The time metrics started being recorded in nanoseconds */
+    private static final long START_NANOS = System.nanoTime();
+
+    /** Every counter, in the order they were made */
+    private static final List<Counter> COUNTERS = new CopyOnWriteArrayList<>();
+
+    /** Every histogram, in the order they were made */
+    private static final List<Histogram> HISTOGRAMS = new CopyOnWriteArrayList<>();
+
+    static {
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(Metrics::writeFiles));
+        }
+    }
+
+    /**
+     * Metrics only has static methods, so it cannot be made.
+     */
+    private Metrics() {
+    }
+
+    /**
+     * Makes a counter and adds it to the exported metrics.
+     *
+     * @param name the name of the counter when it is exported, ending in _total
+     * @param help a description of what the counter counts
+     * @return the new counter
+     */
+    public static Counter counter(String name, String help) {
+        Counter counter = new Counter(name, help);
+        COUNTERS.add(counter);
+        return counter;
+    }
+
+    /**
+     * Makes a histogram of durations and adds it to the exported metrics.
+     *
+     * @param name the name of the histogram when it is exported, ending in _seconds
+     * @param help a description of what the histogram records
+     * @return the new histogram
+     */
+    public static Histogram histogram(String name, String help) {
+        Histogram histogram = new Histogram(name, help);
+        HISTOGRAMS.add(histogram);
+        return histogram;
+    }
+
+    /**
+     * Gets a snapshot of every metric as a JSON object. Each counter also has its average
+     * rate per second since metrics started, such as moves per second, and each histogram
+     * has its count, sum, maximum and percentiles in seconds.
+     *
+     * @return the snapshot as JSON
+     */
+    public static String toJson() {
+        double uptime = (System.nanoTime() - START_NANOS) / NANOS_PER_SECOND;
+        StringBuilder json = new StringBuilder();
+        json.append(String.format(Locale.ROOT, "{%n  \"uptime_seconds\": %.3f,%n", uptime));
+
+        json.append("  \"counters\": {");
+        String separator = "";
+        for (Counter counter : COUNTERS) {
+            json.append(String.format(Locale.ROOT,
+                    "%s%n    \"%s\": {\"value\": %d, \"per_second\": %.3f}", separator,
+                    counter.getName(), counter.get(), counter.get() / Math.max(uptime, 1e-9)));
+            separator = ",";
+        }
+        json.append(String.format(Locale.ROOT, "%n  },%n"));
+
+        json.append("  \"histograms\": {");
+        separator = "";
+        for (Histogram histogram : HISTOGRAMS) {
+            json.append(String.format(Locale.ROOT,
+                    "%s%n    \"%s\": {\"count\": %d, \"sum\": %.9f, \"max\": %.9f", separator,
+                    histogram.getName(), histogram.getCount(), toSeconds(histogram.getSum()),
+                    toSeconds(histogram.getMax())));
+            for (double percentile : PERCENTILES) {
+                json.append(String.format(Locale.ROOT, ", \"p%s\": %.9f",
+                        formatPercentile(percentile, 0).replace(".", "_"),
+                        toSeconds(histogram.getPercentile(percentile))));
+            }
+            json.append('}');
+            separator = ",";
+        }
+        json.append(String.format(Locale.ROOT, "%n  }%n}%n"));
+        return json.toString();
+    }
+
+    /**
+     * Gets every metric in the Prometheus text format. Counters are exported as counters and
+     * histograms as summaries of their percentiles in seconds.
+     *
+     * @return the metrics in the Prometheus text format
+     */
+    public static String toPrometheus() {
+        StringBuilder text = new StringBuilder();
+        for (Counter counter : COUNTERS) {
+            text.append("# HELP ").append(counter.getName()).append(' ')
+                    .append(counter.getHelp()).append('\n');
+            text.append("# TYPE ").append(counter.getName()).append(" counter\n");
+            text.append(counter.getName()).append(' ').append(counter.get()).append('\n');
+        }
+        for (Histogram histogram : HISTOGRAMS) {
+            String name = histogram.getName();
+            text.append("# HELP ").append(name).append(' ')
+                    .append(histogram.getHelp()).append('\n');
+            text.append("# TYPE ").append(name).append(" summary\n");
+            for (double percentile : PERCENTILES) {
+                text.append(String.format(Locale.ROOT, "%s{quantile=\"%s\"} %.9f%n", name,
+                        formatPercentile(percentile, 2),
+                        toSeconds(histogram.getPercentile(percentile))));
+            }
+            text.append(String.format(Locale.ROOT, "%s_sum %.9f%n", name,
+                    toSeconds(histogram.getSum())));
+            text.append(name).append("_count ").append(histogram.getCount()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes the JSON snapshot of every metric to a file.
+     *
+     * @param filename path of the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeJson(String filename) throws IOException {
+        Files.write(Paths.get(filename), toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes every metric in the Prometheus text format to a file.
+     *
+     * @param filename path of the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void writePrometheus(String filename) throws IOException {
+        Files.write(Paths.get(filename), toPrometheus().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the metrics to the files named by JSON_PROPERTY and PROMETHEUS_PROPERTY.
+     */
+    private static void writeFiles() {
+        String json = System.getProperty(JSON_PROPERTY);
+        String prometheus = System.getProperty(PROMETHEUS_PROPERTY);
+        try {
+            if (json != null) {
+                writeJson(json);
+            }
+            if (prometheus != null) {
+                writePrometheus(prometheus);
+            }
+        } catch (IOException ex) {
+            System.err.println("Could not write metrics: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Converts nanoseconds to seconds.
+     */
+    private static double toSeconds(long nanos) {
+        return nanos / NANOS_PER_SECOND;
+    }
+
+    /**
+     * Formats a percentile without any trailing zeros, such as 99.9, or as a quantile such
+     * as 0.999 when the decimal point is moved left by two places.
+     */
+    private static String formatPercentile(double percentile, int places) {
+        return BigDecimal.valueOf(percentile).movePointLeft(places).stripTrailingZeros()
+                .toPlainString();
+    }
+}
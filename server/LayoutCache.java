@@ -0,0 +1,130 @@
+package server;
+
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+import io.FileLoader;
+import maze.MazeLayout;
+import metrics.Counter;
+import metrics.Metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * A class that parses maze text sent to the server and keeps the parsed mazes in a least
+ * recently used cache keyed by a SHA-256 hash of the text, so a maze that is sent again is
+ * not parsed again. The same maze text always gives the same MazeLayout, so requests for the
+ * same maze can also share its search.
+ * <p>
+ * The cache holds up to a maximum total number of cells, evicting the least recently used
+ * mazes first, like CachingFileLoader.
+ * </p>
+ */
+class LayoutCache {
+    /** The number of requests whose maze text was already parsed */
+    private static final Counter HITS = Metrics.counter("server_cache_hits_total",
+            "Mazes sent to the server that were found in the parsed maze cache.");
+
+    /** The number of requests whose maze text had to be parsed */
+    private static final Counter MISSES = Metrics.counter("server_cache_misses_total",
+            "Mazes sent to the server that had to be parsed.");
+
+    /** The maximum total number of cells of the cached mazes */
+    private final long maxCells;
+
+    /** The cached mazes by the hash of their text, from least to most recently used */
+    private final LinkedHashMap<String, MazeLayout> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The total number of cells of the cached mazes */
+    private long cachedCells;
+
+    /**
+     * Constructor for an empty cache.
+     *
+     * @param maxCells the maximum total number of cells of the cached mazes
+     */
+    LayoutCache(long maxCells) {
+        this.maxCells = maxCells;
+    }
+
+    /**
+     * Gets the layout of the maze in the specified text, from the cache if the same text
+     * has been parsed before.
+     *
+     * @param text maze data in the same format as a maze file
+     * @return the walls, start point and end point of the maze
+     * @throws MazeMalformedException if any line in maze data has incorrect format
+     * @throws MazeSizeMissmatchException if size of line or number of lines in maze data does
+     *              not match given length
+     * @throws IllegalArgumentException if the maze data has any invalid characters
+     */
+    MazeLayout load(byte[] text) throws MazeMalformedException, MazeSizeMissmatchException,
+            IllegalArgumentException {
+        String key = hash(text);
+        synchronized (this.cache) {
+            MazeLayout cached = this.cache.get(key);
+            if (cached != null) {
+                if (Metrics.ENABLED) {
+                    HITS.increment();
+                }
+                return cached;
+            }
+        }
+        if (Metrics.ENABLED) {
+            MISSES.increment();
+        }
+
+        // Parse the text outside the lock, so other mazes can be parsed at the same time.
+        MazeLayout layout;
+        try {
+            layout = new MazeLayout(new FileLoader().load(
+                    Channels.newChannel(new ByteArrayInputStream(text))));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        synchronized (this.cache) {
+            put(key, layout);
+        }
+        return layout;
+    }
+
+    /**
+     * Adds a maze to the cache, and evicts the least recently used mazes until the cache is
+     * within its maximum number of cells. Mazes larger than the whole cache are not cached.
+     */
+    private void put(String key, MazeLayout layout) {
+        if (layout.getCellCount() > this.maxCells) {
+            return;
+        }
+        MazeLayout replaced = this.cache.put(key, layout);
+        if (replaced != null) {
+            this.cachedCells -= replaced.getCellCount();
+        }
+        this.cachedCells += layout.getCellCount();
+
+        Iterator<MazeLayout> eldest = this.cache.values().iterator();
+        while (this.cachedCells > this.maxCells) {
+            this.cachedCells -= eldest.next().getCellCount();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Gets the SHA-256 hash of maze text as a hexadecimal string.
+     */
+    private static String hash(byte[] text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(text));
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(ex);
+        }
+    }
+}
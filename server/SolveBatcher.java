@@ -0,0 +1,259 @@
+package server;
+
+import maze.Maze;
+import maze.MazeLayout;
+import maze.SolveResult;
+import maze.Solver;
+import metrics.Counter;
+import metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A class that solves mazes on a pool of threads, and coalesces small mazes into batches
+ * so that many small requests are handed to the pool together instead of one at a time.
+ * <p>
+ * A dispatcher thread hands a batch to the pool whenever one of its threads is free. Small
+ * mazes that arrive while every thread is busy wait in a queue, and the next free thread
+ * takes all of them at once, up to a maximum batch size, so batches grow with the load and
+ * a maze that arrives when a thread is free is solved straight away. Requests in a batch for
+ * the same MazeLayout are only solved once. Mazes with more cells than the batching limit
+ * are solved on their own, and wait for a free thread in the same way, so the dispatcher
+ * never counts a thread solving one as free.
+ * </p>
+ * <p>
+ * Every maze that is submitted gets a result, even if solving it fails with an Error such
+ * as OutOfMemoryError or the batcher is shut down, so nothing waiting on a result is left
+ * waiting forever.
+ * </p>
+ */
+public class SolveBatcher {
+    /** The number of batches of small mazes solved */
+    private static final Counter BATCHES = Metrics.counter("server_batches_total",
+            "Batches of small mazes handed to the solver threads.");
+
+    /** The number of small maze requests solved in batches */
+    private static final Counter BATCHED = Metrics.counter("server_batched_requests_total",
+            "Small maze requests solved in batches.");
+
+    /** The solver used for every maze, which must be safe to share between threads */
+    private final Solver solver;
+
+    /** The threads that solve mazes */
+    private final ExecutorService pool;
+
+    /** A permit for each thread in the pool that is not solving a batch */
+    private final Semaphore idle;
+
+    /** The largest number of cells of a maze that is put in a batch */
+    private final long maxBatchCells;
+
+    /** The largest number of requests in a batch */
+    private final int maxBatchSize;
+
+    /** The small mazes waiting for a free thread */
+    private final LinkedBlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+
+    /** The thread that takes batches from the queue and hands them to the pool */
+    private final Thread dispatcher;
+
+    /** The number of batches handed to the pool */
+    private final AtomicLong batches = new AtomicLong();
+
+    /** The number of requests in every batch handed to the pool */
+    private final AtomicLong batchedRequests = new AtomicLong();
+
+    /**
+     * Constructor which starts the pool of threads and the dispatcher.
+     *
+     * @param solver the solver used for every maze, which must be safe to share between
+     *               threads
+     * @param threads the number of threads solving mazes
+     * @param maxBatchCells the largest number of cells of a maze that is put in a batch
+     * @param maxBatchSize the largest number of requests in a batch
+     * @throws IllegalArgumentException if threads or maxBatchSize is less than 1
+     */
+    public SolveBatcher(Solver solver, int threads, long maxBatchCells, int maxBatchSize)
+            throws IllegalArgumentException {
+        if (threads < 1 || maxBatchSize < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.solver = solver;
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.idle = new Semaphore(threads);
+        this.maxBatchCells = maxBatchCells;
+        this.maxBatchSize = maxBatchSize;
+        this.dispatcher = new Thread(this::dispatch, "solve-batcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Queues a maze to be solved. A maze too large to be put in a batch waits here for a
+     * free thread.
+     *
+     * @param layout the walls, start point and end point of the maze
+     * @return the result of solving the maze, once it has been solved, which fails with
+     *         RejectedExecutionException if the batcher has been shut down
+     */
+    public CompletableFuture<SolveResult> submit(MazeLayout layout) {
+        if (this.pool.isShutdown()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException());
+        }
+        if (layout.getCellCount() > this.maxBatchCells) {
+            return solveAlone(layout);
+        }
+        Request request = new Request(layout);
+        this.queue.add(request);
+
+        // If the batcher was shut down while the request was queued, the dispatcher may have
+        // stopped already and nothing would take it from the queue.
+        if (this.pool.isShutdown() && this.queue.remove(request)) {
+            request.result.completeExceptionally(new RejectedExecutionException());
+        }
+        return request.result;
+    }
+
+    /**
+     * Gets the number of batches of small mazes handed to the solver threads.
+     *
+     * @return number of batches
+     */
+    public long getBatchCount() {
+        return this.batches.get();
+    }
+
+    /**
+     * Gets the number of small maze requests solved in batches, which divided by the
+     * number of batches is the average batch size.
+     *
+     * @return number of requests in batches
+     */
+    public long getBatchedRequestCount() {
+        return this.batchedRequests.get();
+    }
+
+    /**
+     * Stops the dispatcher and the pool of threads. Mazes still waiting in the queue are
+     * cancelled, and mazes being solved are solved before their threads stop.
+     */
+    public void shutdown() {
+        this.dispatcher.interrupt();
+        this.pool.shutdown();
+        Request request;
+        while ((request = this.queue.poll()) != null) {
+            request.result.completeExceptionally(new CancellationException());
+        }
+    }
+
+    /**
+     * Waits for a free thread, and solves a maze too large to be put in a batch on it.
+     */
+    private CompletableFuture<SolveResult> solveAlone(MazeLayout layout) {
+        this.idle.acquireUninterruptibly();
+        try {
+            return CompletableFuture.supplyAsync(() -> this.solver.solve(new Maze(layout)),
+                    this.pool).whenComplete((result, ex) -> this.idle.release());
+        } catch (RejectedExecutionException ex) {
+            this.idle.release();
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Waits for a queued maze and a free thread, and hands the free thread every queued
+     * maze up to the maximum batch size, until the dispatcher is interrupted or the pool
+     * is shut down. A free thread is only taken once there is a maze for it, so the
+     * dispatcher never holds a thread that a large maze is waiting for.
+     */
+    private void dispatch() {
+        try {
+            while (true) {
+                List<Request> batch = new ArrayList<>();
+                batch.add(this.queue.take());
+                try {
+                    this.idle.acquire();
+                } catch (InterruptedException ex) {
+                    batch.get(0).result.completeExceptionally(new CancellationException());
+                    throw ex;
+                }
+                this.queue.drainTo(batch, this.maxBatchSize - 1);
+                this.batches.incrementAndGet();
+                this.batchedRequests.addAndGet(batch.size());
+                if (Metrics.ENABLED) {
+                    BATCHES.increment();
+                    BATCHED.add(batch.size());
+                }
+                try {
+                    this.pool.execute(() -> {
+                        try {
+                            solveBatch(batch);
+                        } finally {
+                            this.idle.release();
+                        }
+                    });
+                } catch (RejectedExecutionException ex) {
+                    // The pool has been shut down, so nothing will solve this batch.
+                    this.idle.release();
+                    for (Request request : batch) {
+                        request.result.completeExceptionally(ex);
+                    }
+                    return;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Solves every maze in a batch, solving each distinct layout only once.
+     */
+    private void solveBatch(List<Request> batch) {
+        IdentityHashMap<MazeLayout, SolveResult> results = new IdentityHashMap<>();
+        for (Request request : batch) {
+            try {
+                SolveResult result = results.get(request.layout);
+                if (result == null) {
+                    result = this.solver.solve(new Maze(request.layout));
+                    results.put(request.layout, result);
+                }
+                request.result.complete(result);
+            } catch (RuntimeException | Error ex) {
+                // Complete the request even if the solve ran out of memory or stack, as its
+                // handler waits on the result and would otherwise wait forever.
+                request.result.completeExceptionally(ex);
+            }
+        }
+    }
+
+    /**
+     * A maze waiting to be solved, along with the result to complete once it is solved.
+     */
+    private static class Request {
+        /** The walls, start point and end point of the maze */
+        private final MazeLayout layout;
+
+        /** The result of solving the maze */
+        private final CompletableFuture<SolveResult> result = new CompletableFuture<>();
+
+        /**
+         * Constructor for a request to solve the specified maze.
+         *
+         * @param layout the walls, start point and end point of the maze
+         */
+        Request(MazeLayout layout) {
+            this.layout = layout;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+import io.CachingFileLoader;
+import maze.MazeLayout;
+import maze.SolveResult;
+import maze.Solver;
+import metrics.Counter;
+import metrics.Histogram;
+import metrics.Metrics;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A class that solves mazes sent to it over HTTP, so other programs can solve mazes without
+ * starting a JVM for each one. The server only listens on the loopback address.
+ * <p>
+ * {@code POST /solve} solves the maze in the body of the request, which is in the same
+ * format as a maze file. {@code GET /solve?path={maze file path}} solves a maze file on the
+ * machine the server runs on, in any format Launcher accepts. The response is a JSON object
+ * with whether the maze is solvable, the length of the path, the number of nodes expanded,
+ * the time taken to load and solve the maze in milliseconds, and the path as [x, y] pairs
+ * from the start point to the end point. A maze that cannot be loaded, or has more cells
+ * than an array can index, gets a 400 or 404 response with a JSON object holding the error,
+ * a body of more than MAX_BODY_BYTES gets a 413 response, and any other failure gets a 500
+ * response. {@code GET /metrics} gets the metrics in the Prometheus text format, when they
+ * are enabled.
+ * </p>
+ * <p>
+ * Parsed maze text is cached by its SHA-256 hash, and maze files through a
+ * CachingFileLoader, so a maze sent again is not parsed again. Small mazes are solved in
+ * batches by a SolveBatcher. Requests are handled on a fixed pool of threads, as they spend
+ * most of their time waiting for the solver threads.
+ * </p>
+ */
+public class SolveServer {
+    /** The port the server listens on when none is specified */
+    public static final int DEFAULT_PORT = 8080;
+
+    /** The largest number of cells of a maze that is solved in a batch with other mazes */
+    public static final long MAX_BATCH_CELLS = 1 << 16;
+
+    /** The largest number of requests solved in a single batch */
+    public static final int MAX_BATCH_SIZE = 64;
+
+    /**
+     * The largest body of a request in bytes, which is twice the number of cells the cache of
+     * maze text holds, leaving room for the line breaks of the largest maze it can cache
+     */
+    public static final int MAX_BODY_BYTES = (int) (2 * CachingFileLoader.DEFAULT_MAX_CELLS);
+
+    /** The path of the endpoint that solves mazes */
+    private static final String SOLVE_PATH = "/solve";
+
+    /** The path of the endpoint that gets the metrics */
+    private static final String METRICS_PATH = "/metrics";
+
+    /** The query parameter naming a maze file to solve */
+    private static final String PATH_PARAMETER = "path";
+
+    /** The number of request handling threads for each solver thread */
+    private static final int HANDLERS_PER_THREAD = 4;
+
+    /** The number of connections that may wait to be accepted */
+    private static final int BACKLOG = 1024;
+
+    /**
+     * The system property that makes the JDK's HTTP server send each response as soon as it
+     * is written, instead of holding back the body until the headers are acknowledged. It
+     * applies to every HTTP server in the JVM and is only read once, so it must be set by
+     * the program starting the server before any HTTP server is created. Without it, every
+     * small response waits about 40 ms for a delayed ACK.
+     */
+    public static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    /** The number of nanoseconds in a millisecond */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /** The number of requests to solve a maze */
+    private static final Counter REQUESTS = Metrics.counter("server_requests_total",
+            "Requests to the server to solve a maze.");
+
+    /** The time taken to handle each request to solve a maze */
+    private static final Histogram REQUEST_TIME = Metrics.histogram("server_request_seconds",
+            "Time taken by the server to load, solve and respond to each maze.");
+
+    /** The HTTP server listening for requests */
+    private final HttpServer server;
+
+    /** The threads that handle requests */
+    private final ExecutorService handlers;
+
+    /** The batcher that solves the mazes */
+    private final SolveBatcher batcher;
+
+    /** The cache of mazes sent as text */
+    private final LayoutCache textCache = new LayoutCache(CachingFileLoader.DEFAULT_MAX_CELLS);
+
+    /** The cache of mazes loaded from maze files */
+    private final CachingFileLoader fileCache = new CachingFileLoader();
+
+    /**
+     * Constructor which binds the server to a port on the loopback address. The server does
+     * not handle requests until it is started.
+     *
+     * @param solver the solver used for every maze, which must be safe to share between
+     *               threads
+     * @param port the port to listen on, or 0 for any free port
+     * @param threads the number of threads solving mazes
+     * @throws IOException if the port cannot be bound
+     * @throws IllegalArgumentException if threads is less than 1
+     */
+    public SolveServer(Solver solver, int port, int threads) throws IOException,
+            IllegalArgumentException {
+        this.batcher = new SolveBatcher(solver, threads, MAX_BATCH_CELLS, MAX_BATCH_SIZE);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                port), BACKLOG);
+        this.handlers = Executors.newFixedThreadPool(threads * HANDLERS_PER_THREAD);
+        this.server.setExecutor(this.handlers);
+        this.server.createContext(SOLVE_PATH, this::handleSolve);
+        this.server.createContext(METRICS_PATH, this::handleMetrics);
+    }
+
+    /**
+     * Starts handling requests in the background.
+     */
+    public void start() {
+        this.server.start();
+    }
+
+    /**
+     * Stops the server, waiting up to the specified time for requests being handled to
+     * finish.
+     *
+     * @param delaySeconds the most time to wait for requests to finish in seconds
+     */
+    public void stop(int delaySeconds) {
+        this.server.stop(delaySeconds);
+        this.handlers.shutdown();
+        this.batcher.shutdown();
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * Gets the batcher that solves the mazes, so its batches can be counted.
+     *
+     * @return the batcher
+     */
+    public SolveBatcher getBatcher() {
+        return this.batcher;
+    }
+
+    /**
+     * Loads and solves the maze in a request, and responds with the path found.
+     */
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        long startTime = System.nanoTime();
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"POST".equals(method)) {
+                respond(exchange, 405, toErrorJson("Expected GET or POST"));
+                return;
+            }
+            String filename = getParameter(exchange.getRequestURI().getRawQuery(),
+                    PATH_PARAMETER);
+            // Refuse bodies too large to cache before reading them, or as soon as more than
+            // the limit has been read when the length is not given.
+            byte[] text = getContentLength(exchange) > MAX_BODY_BYTES ? null
+                    : exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+            if (text == null || text.length > MAX_BODY_BYTES) {
+                respond(exchange, 413, toErrorJson("Request body is larger than "
+                        + MAX_BODY_BYTES + " bytes"));
+                return;
+            }
+
+            MazeLayout layout;
+            try {
+                layout = filename != null ? this.fileCache.loadMaze(filename).getLayout()
+                        : this.textCache.load(text);
+            } catch (MazeMalformedException | MazeSizeMissmatchException
+                    | IllegalArgumentException ex) {
+                respond(exchange, 400, toErrorJson(describe(ex)));
+                return;
+            } catch (FileNotFoundException ex) {
+                respond(exchange, 404, toErrorJson("File not found: " + filename));
+                return;
+            } catch (RuntimeException ex) {
+                // Such as an UncheckedIOException while reading the file.
+                respond(exchange, 500, toErrorJson(describe(ex)));
+                return;
+            }
+            long loadNanos = System.nanoTime() - startTime;
+
+            // The connectivity index and the solvers need one array entry per cell.
+            if (layout.getCellCount() > Integer.MAX_VALUE) {
+                respond(exchange, 400, toErrorJson("Maze has too many cells to solve: "
+                        + layout.getCellCount()));
+                return;
+            }
+
+            // Reject mazes that cannot be solved without searching them.
+            SolveResult result;
+            try {
+                result = layout.getConnectivity().isSolvable()
+                        ? this.batcher.submit(layout).join() : new SolveResult(new int[0], 0, 0);
+            } catch (CompletionException ex) {
+                respond(exchange, 500, toErrorJson(String.valueOf(ex.getCause())));
+                return;
+            } catch (RuntimeException ex) {
+                respond(exchange, 500, toErrorJson(describe(ex)));
+                return;
+            }
+            respond(exchange, 200, toJson(layout, result, loadNanos));
+        } finally {
+            if (Metrics.ENABLED) {
+                REQUESTS.increment();
+                REQUEST_TIME.recordSince(startTime);
+            }
+        }
+    }
+
+    /**
+     * Responds with the metrics in the Prometheus text format.
+     */
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4");
+            byte[] body = Metrics.toPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Sends a JSON response with the specified status code.
+     */
+    private static void respond(HttpExchange exchange, int status, String json)
+            throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Gets the decoded value of a parameter in a raw query string, or null if it is not
+     * there.
+     */
+    private static String getParameter(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            String key = equals < 0 ? parameter : parameter.substring(0, equals);
+            if (URLDecoder.decode(key, StandardCharsets.UTF_8).equals(name)) {
+                return equals < 0 ? ""
+                        : URLDecoder.decode(parameter.substring(equals + 1),
+                                StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the length of the body of a request from its headers, or -1 if it is not given
+     * or is not a number.
+     */
+    private static long getContentLength(HttpExchange exchange) {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (length == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(length.trim());
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * Describes an exception by its class and message.
+     */
+    private static String describe(Exception ex) {
+        return ex.getClass().getSimpleName()
+                + (ex.getMessage() == null ? "" : ": " + ex.getMessage());
+    }
+
+    /**
+     * Makes the JSON object describing the result of solving a maze.
+     */
+    private static String toJson(MazeLayout layout, SolveResult result, long loadNanos) {
+        int mazeX = layout.getMazeX();
+        StringBuilder json = new StringBuilder();
+        json.append("{\"solvable\":").append(result.isSolvable())
+                .append(",\"pathLength\":").append(result.getPathLength())
+                .append(",\"nodesExpanded\":").append(result.getNodesExpanded())
+                .append(",\"loadMs\":")
+                .append(String.format(Locale.ROOT, "%.3f", loadNanos / NANOS_PER_MILLI))
+                .append(",\"solveMs\":")
+                .append(String.format(Locale.ROOT, "%.3f",
+                        result.getElapsedNanos() / NANOS_PER_MILLI))
+                .append(",\"path\":[");
+        int[] path = result.getPath();
+        for (int i = 0; i < path.length; i++) {
+            json.append(i == 0 ? "[" : ",[").append(path[i] % mazeX).append(',')
+                    .append(path[i] / mazeX).append(']');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Makes the JSON object describing an error.
+     */
+    private static String toErrorJson(String error) {
+        StringBuilder json = new StringBuilder("{\"error\":\"");
+        for (int i = 0; i < error.length(); i++) {
+            char letter = error.charAt(i);
+            switch (letter) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                default -> {
+                    if (letter < ' ') {
+                        json.append(String.format(Locale.ROOT, "\\u%04x", (int) letter));
+                    } else {
+                        json.append(letter);
+                    }
+                }
+            }
+        }
+        return json.append("\"}").toString();
+    }
+}
@@ -0,0 +1,367 @@
+package tournament;
+
+import maze.AutoNavigator;
+import maze.Maze;
+import maze.MazeLayout;
+import maze.SolverEngine;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A class that races many agents through the same maze at once. Every agent is a Maze of its
+ * own sharing a single MazeLayout, so the maze is never copied and agents never lock each
+ * other out. Each agent navigates with a SolverEngine that tries moves in its own order.
+ * <p>
+ * Agents take turns of STEPS_PER_TURN steps on a work-stealing pool in first-in first-out
+ * mode. At the end of its turn an agent queues its next turn behind every other waiting
+ * agent, so agents share the threads fairly however many there are.
+ * </p>
+ * <p>
+ * Each agent costs memory of its own on top of the shared layout: its SolverEngine's bitset
+ * of one bit per cell of the maze, and the pages of its Maze's overlay for the parts of the
+ * maze it has been to, which are described in Maze. On a maze of 10001 by 10001 cells, each
+ * agent's bitset alone is about 12.5 MB, so 24 agents need about 300 MB.
+ * </p>
+ */
+public class Tournament {
+    /** The number of steps an agent takes in each turn before letting other agents step */
+    public static final int STEPS_PER_TURN = 4096;
+
+    /** The heading of the results table */
+    public static final String HEADER = "agent,order,exit_found,rank,steps,elapsed_ms,steps_per_s";
+
+    /** The number of nanoseconds in a second */
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    /** The number of nanoseconds in a millisecond */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /** The letter for each direction in the results, indexed by AutoNavigator.UP, DOWN, etc. */
+    private static final char[] DIRECTION_NAMES = {'U', 'D', 'R', 'L'};
+
+    /** The agents in the tournament */
+    private final List<Agent> agents;
+
+    /** The number of threads to step the agents on */
+    private final int threads;
+
+    /** The total number of steps taken by every agent */
+    private final LongAdder totalSteps = new LongAdder();
+
+    /** The number of agents that have found the exit */
+    private final AtomicInteger finishers = new AtomicInteger();
+
+    /** The time the tournament took to run in nanoseconds */
+    private long elapsedNanos;
+
+    /**
+     * Constructor for a tournament of agents on a maze layout. The order each agent tries
+     * moves in is shuffled from the seed, so the same seed always gives the same agents.
+     *
+     * @param layout the maze layout shared by every agent
+     * @param agents the number of agents
+     * @param threads the number of threads to step the agents on
+     * @param seed the seed to shuffle the order of moves of each agent
+     */
+    public Tournament(MazeLayout layout, int agents, int threads, long seed) {
+        this.threads = threads;
+        this.agents = new ArrayList<>(agents);
+
+        Random random = new Random(seed);
+        List<Integer> order = new ArrayList<>();
+        for (int direction = 0; direction < AutoNavigator.NUM_OF_MOVES; direction++) {
+            order.add(direction);
+        }
+        for (int id = 0; id < agents; id++) {
+            Collections.shuffle(order, random);
+            int[] directions = order.stream().mapToInt(Integer::intValue).toArray();
+            this.agents.add(new Agent(id, new Maze(layout), directions));
+        }
+    }
+
+    /**
+     * Runs every agent until it finds the exit, has visited every path it can reach, or
+     * fails. An agent that fails is recorded as failed and does not stop the other agents.
+     *
+     * @throws InterruptedException if interrupted while waiting for the agents
+     * @throws IllegalStateException if the threads do not stop after every agent finished
+     */
+    public void run() throws InterruptedException, IllegalStateException {
+        ForkJoinPool pool = new ForkJoinPool(this.threads,
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        CountDownLatch done = new CountDownLatch(this.agents.size());
+        long startTime = System.nanoTime();
+
+        // Queue the first turn of every agent from inside the pool, so the turns are queued
+        // on a worker in order and later turns go to the back of that queue.
+        pool.execute(() -> {
+            for (Agent agent : this.agents) {
+                agent.startNanos = startTime;
+                new Turn(agent, done).fork();
+            }
+        });
+        done.await();
+        this.elapsedNanos = System.nanoTime() - startTime;
+
+        // Every agent has finished, so no turns are left and the pool stops straight away.
+        pool.shutdown();
+        if (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+            pool.shutdownNow();
+            throw new IllegalStateException("Turns were still running after every agent"
+                    + " finished");
+        }
+    }
+
+    /**
+     * Prints a line of results for every agent, in the same order as HEADER.
+     *
+     * @param out the stream to print the results to
+     */
+    public void printResults(PrintStream out) {
+        out.println(HEADER);
+        for (Agent agent : this.agents) {
+            out.printf(Locale.ROOT, "%d,%s,%b,%d,%d,%.3f,%.0f%n", agent.getId(), agent.getOrder(),
+                    agent.isExitFound(), agent.getRank(), agent.getSteps(),
+                    agent.getElapsedNanos() / NANOS_PER_MILLI, agent.getStepsPerSecond());
+        }
+    }
+
+    /**
+     * Gets the agents in the tournament.
+     *
+     * @return the agents, in the order they were made
+     */
+    public List<Agent> getAgents() {
+        return Collections.unmodifiableList(this.agents);
+    }
+
+    /**
+     * Gets the total number of steps taken by every agent so far.
+     *
+     * @return total number of steps
+     */
+    public long getTotalSteps() {
+        return this.totalSteps.sum();
+    }
+
+    /**
+     * Gets the time the tournament took to run.
+     *
+     * @return time taken in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * Gets the total number of steps taken by every agent per second of the tournament.
+     *
+     * @return aggregate steps per second
+     */
+    public double getStepsPerSecond() {
+        return getTotalSteps() * NANOS_PER_SECOND / Math.max(this.elapsedNanos, 1);
+    }
+
+    /**
+     * A single turn of an agent, which takes up to STEPS_PER_TURN steps and then queues the
+     * agent's next turn if it has not finished.
+     */
+    private class Turn extends RecursiveAction {
+        /** The version of the serialized form, which RecursiveAction requires */
+        private static final long serialVersionUID = 1L;
+
+        /** The agent taking the turn */
+        private final Agent agent;
+
+        /** The latch to count down when the agent finishes */
+        private final CountDownLatch done;
+
+        /**
+         * Constructor for a turn of the specified agent.
+         *
+         * @param agent the agent taking the turn
+         * @param done the latch to count down when the agent finishes
+         */
+        Turn(Agent agent, CountDownLatch done) {
+            this.agent = agent;
+            this.done = done;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                if (takeSteps()) {
+                    new Turn(this.agent, this.done).fork();
+                    return;
+                }
+            } catch (RuntimeException | Error ex) {
+                // Nothing joins a turn, so an agent that fails, such as by running out of
+                // memory for its overlay, has to be finished here or run() would wait forever.
+                // Its run is dropped so the memory goes to the agents still running.
+                this.agent.failure = ex;
+                this.agent.maze = null;
+                this.agent.engine = null;
+            }
+            this.agent.endNanos = System.nanoTime();
+            if (this.agent.failure == null && this.agent.maze.isGameOver()) {
+                this.agent.rank = finishers.incrementAndGet();
+            }
+            this.done.countDown();
+        }
+
+        /**
+         * Takes up to STEPS_PER_TURN steps of the agent, counting every step taken even if a
+         * step fails.
+         *
+         * @return true if the agent can still move, else return false.
+         */
+        private boolean takeSteps() {
+            int steps = 0;
+            boolean moving = true;
+            try {
+                while (steps < STEPS_PER_TURN && (moving = this.agent.engine.step())) {
+                    steps++;
+                }
+            } finally {
+                this.agent.steps += steps;
+                totalSteps.add(steps);
+            }
+            return moving;
+        }
+    }
+
+    /**
+     * A class that represents one agent in the tournament, with its own position and record
+     * of where it has been in the shared maze layout.
+     */
+    public static class Agent {
+        /** The number of the agent */
+        private final int id;
+
+        /** The agent's run through the maze, or null if the agent failed */
+        private Maze maze;
+
+        /** The order the agent tries moves in */
+        private final int[] order;
+
+        /** The engine that navigates the agent's run through the maze, or null if it failed */
+        private SolverEngine engine;
+
+        /** The number of steps the agent has taken */
+        private long steps;
+
+        /** The time the tournament started in nanoseconds */
+        private long startNanos;
+
+        /** The time the agent finished in nanoseconds */
+        private long endNanos;
+
+        /** The position the agent found the exit in, or 0 if it did not find the exit */
+        private int rank;
+
+        /** The exception or error that stopped the agent, or null if it did not fail */
+        private Throwable failure;
+
+        /**
+         * Constructor for an agent navigating the specified maze.
+         *
+         * @param id the number of the agent
+         * @param maze the agent's run through the maze
+         * @param order the order the agent tries moves in
+         */
+        Agent(int id, Maze maze, int[] order) {
+            this.id = id;
+            this.maze = maze;
+            this.order = order;
+            this.engine = new SolverEngine(maze, order);
+        }
+
+        /**
+         * Gets the number of the agent.
+         *
+         * @return number of the agent
+         */
+        public int getId() {
+            return this.id;
+        }
+
+        /**
+         * Gets the order the agent tries moves in, as the first letters of the directions.
+         *
+         * @return order of moves, such as "UDRL"
+         */
+        public String getOrder() {
+            StringBuilder names = new StringBuilder();
+            for (int direction : this.order) {
+                names.append(DIRECTION_NAMES[direction]);
+            }
+            return names.toString();
+        }
+
+        /**
+         * Determines whether the agent found the exit.
+         *
+         * @return true if the agent found the exit, else return false.
+         */
+        public boolean isExitFound() {
+            return this.failure == null && this.maze.isGameOver();
+        }
+
+        /**
+         * Gets the position the agent found the exit in, where 1 is the first agent to
+         * find the exit.
+         *
+         * @return finishing position, or 0 if the agent did not find the exit
+         */
+        public int getRank() {
+            return this.rank;
+        }
+
+        /**
+         * Gets the exception or error that stopped the agent before it finished navigating.
+         *
+         * @return the cause of the failure, or null if the agent did not fail
+         */
+        public Throwable getFailure() {
+            return this.failure;
+        }
+
+        /**
+         * Gets the number of steps the agent took.
+         *
+         * @return number of steps
+         */
+        public long getSteps() {
+            return this.steps;
+        }
+
+        /**
+         * Gets the time from the start of the tournament until the agent finished.
+         *
+         * @return time taken in nanoseconds
+         */
+        public long getElapsedNanos() {
+            return this.endNanos - this.startNanos;
+        }
+
+        /**
+         * Gets the number of steps the agent took per second of its run.
+         *
+         * @return steps per second
+         */
+        public double getStepsPerSecond() {
+            return this.steps * NANOS_PER_SECOND / Math.max(getElapsedNanos(), 1);
+        }
+    }
+}